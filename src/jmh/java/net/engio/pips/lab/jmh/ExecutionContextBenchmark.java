@@ -0,0 +1,54 @@
+package net.engio.pips.lab.jmh;
+
+import net.engio.pips.lab.ExecutionContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of looking up bindings in an {@link ExecutionContext} depending on how many
+ * parent contexts have to be searched.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExecutionContextBenchmark {
+
+    @Param({"1", "3", "10"})
+    public int depth;
+
+    private ExecutionContext leaf;
+
+    @Setup
+    public void setup() {
+        ExecutionContext root = new net.engio.pips.lab.Benchmark("jmh").getClobalContext();
+        root.bind("root", new Object());
+        ExecutionContext current = root;
+        for (int i = 0; i < depth; i++)
+            current = current.getChild();
+        current.bind("local", new Object());
+        leaf = current;
+    }
+
+    @Benchmark
+    public Object getLocal() {
+        return leaf.get("local");
+    }
+
+    @Benchmark
+    public Object getFromRoot() {
+        return leaf.get("root");
+    }
+
+    @Benchmark
+    public Object getMissing() {
+        return leaf.get("missing");
+    }
+}
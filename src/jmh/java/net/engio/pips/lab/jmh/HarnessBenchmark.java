@@ -0,0 +1,70 @@
+package net.engio.pips.lab.jmh;
+
+import net.engio.pips.lab.ExecutionContext;
+import net.engio.pips.lab.Laboratory;
+import net.engio.pips.lab.workload.ITask;
+import net.engio.pips.lab.workload.ITaskFactory;
+import net.engio.pips.lab.workload.Workload;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead the laboratory adds to each invocation of a task by running a fixed number
+ * of invocations of an empty task, split across a varying number of parallel units.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HarnessBenchmark {
+
+    private static final int Invocations = 1 << 20;
+
+    private static final ITaskFactory Empty = new ITaskFactory() {
+        @Override
+        public ITask create(ExecutionContext context) {
+            return new ITask() {
+                @Override
+                public void run(ExecutionContext context) throws Exception {
+                }
+            };
+        }
+    };
+
+    private static final OutputStream Discard = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"1", "4", "16", "64"})
+    public int parallelUnits;
+
+    @Benchmark
+    @OperationsPerInvocation(Invocations)
+    public long emptyTask() throws Exception {
+        Workload workload = new Workload("Empty task")
+                .setParallelTasks(parallelUnits)
+                .setITaskFactory(Empty)
+                .duration().repetitions(Invocations / parallelUnits)
+                .starts().immediately();
+        net.engio.pips.lab.Benchmark benchmark = new net.engio.pips.lab.Benchmark("jmh")
+                .setLogStream(Discard)
+                .setProgressInterval(0)
+                .addWorkload(workload);
+        new Laboratory().run(benchmark);
+        return workload.getExecutionTime();
+    }
+}
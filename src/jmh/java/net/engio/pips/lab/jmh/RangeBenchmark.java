@@ -0,0 +1,72 @@
+package net.engio.pips.lab.jmh;
+
+import net.engio.pips.lab.common.Range;
+import net.engio.pips.lab.common.ValueGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the shared accessors of a {@link Range} with per-thread cursors when many threads draw values.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Threads(8)
+@Fork(1)
+public class RangeBenchmark {
+
+    private Range<Integer> range;
+
+    private final AtomicInteger threads = new AtomicInteger(0);
+
+    @Setup
+    public void setup() {
+        range = new Range<Integer>(new ValueGenerator<Integer>() {
+            private int next = 0;
+
+            @Override
+            public Integer next() {
+                return next++;
+            }
+        }, 1 << 16);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadCursor {
+
+        private Range.Cursor<Integer> cursor;
+
+        @Setup
+        public void setup(RangeBenchmark benchmark) {
+            cursor = benchmark.range.cursor(benchmark.threads.getAndIncrement());
+        }
+    }
+
+    @Benchmark
+    public Integer sharedGetNext() {
+        return range.getNext();
+    }
+
+    @Benchmark
+    public Integer sharedGetRandom() {
+        return range.getRandomElement();
+    }
+
+    @Benchmark
+    public Integer cursorGetNext(ThreadCursor thread) {
+        return thread.cursor.getNext();
+    }
+
+    @Benchmark
+    public Integer cursorGetRandom(ThreadCursor thread) {
+        return thread.cursor.getRandomElement();
+    }
+}
@@ -0,0 +1,47 @@
+package net.engio.pips.lab.jmh;
+
+import net.engio.pips.data.utils.ExecutionTimer;
+import net.engio.pips.lab.ExecutionContext;
+import net.engio.pips.lab.metrics.LatencyTimer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of timing a single operation with the timers provided by an {@link ExecutionContext}.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TimerBenchmark {
+
+    private ExecutionTimer executionTimer;
+
+    private LatencyTimer latencyTimer;
+
+    @Setup
+    public void setup() {
+        ExecutionContext context = new net.engio.pips.lab.Benchmark("jmh").setSampleInterval(1000).getClobalContext().getChild();
+        executionTimer = context.createExecutionTimer("execution timer");
+        latencyTimer = context.createLatencyTimer("latency timer");
+    }
+
+    @Benchmark
+    public void executionTimer() {
+        executionTimer.begin();
+        executionTimer.end();
+    }
+
+    @Benchmark
+    public long latencyTimer() {
+        latencyTimer.begin();
+        return latencyTimer.end();
+    }
+}
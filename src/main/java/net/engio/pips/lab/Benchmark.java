@@ -2,6 +2,7 @@ package net.engio.pips.lab;
 
 import net.engio.pips.data.DataCollectorManager;
 import net.engio.pips.data.IDataCollector;
+import net.engio.pips.lab.store.ResultStore;
 import net.engio.pips.lab.workload.Workload;
 import net.engio.pips.reports.IReporter;
 
@@ -9,6 +10,11 @@ import java.io.File;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A benchmark is the container for all information of a formerly executed performance
@@ -23,10 +29,14 @@ public class Benchmark {
     public static final class Properties{
         public static final String TimeoutInSeconds = "Timeout in seconds";
         public static final String SampleInterval = "Sample interval";
+        public static final String ProgressInterval = "Progress interval";
         public static final String BasePath = "Base path";
         public static final String LogStream = "Log stream";
         public static final String Title = "Title";
         public static final String ReportBaseDir = "Report base dir";
+        public static final String StreamResults = "Stream results";
+        public static final String SampleExecutionTimers = "Sample execution timers";
+        public static final String ReportThreads = "Report threads";
     }
 
     private ExecutionContext rootContext = new ExecutionContext(this);
@@ -41,6 +51,8 @@ public class Benchmark {
 
     private DataCollectorManager collectors = new DataCollectorManager();
 
+    private ResultStore resultStore;
+
     public Benchmark(String title) {
         if (title == null || title.isEmpty())
             throw new IllegalArgumentException("Please provide a title that is a valid identifier for a directory");
@@ -155,18 +167,98 @@ public class Benchmark {
             log.println("Skipping report generation because no reporters have been registered");
             return;
         }
-        setProperty(Properties.ReportBaseDir, prepareDirectory());
-
-        for (IReporter reporter : reporters) {
-            log.println("Report" + reporter);
-            reporter.generate(this);
+        int threads = Math.min(getReportThreads(), reporters.length);
+        if (threads <= 1) {
+            for (IReporter reporter : reporters) {
+                log.println("Report" + reporter);
+                reporter.generate(this);
+            }
+            return;
         }
+        // run the reporters in parallel but report failures in the order of the reporters
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> reports = new ArrayList<Future<Void>>(reporters.length);
+            for (final IReporter reporter : reporters) {
+                log.println("Report" + reporter);
+                reports.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        reporter.generate(Benchmark.this);
+                        return null;
+                    }
+                }));
+            }
+            Exception failure = null;
+            for (Future<Void> report : reports) {
+                try {
+                    report.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error)
+                        throw (Error) e.getCause();
+                    if (failure == null)
+                        failure = (Exception) e.getCause();
+                }
+            }
+            if (failure != null)
+                throw failure;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Set the maximum number of threads used to generate reports. Reporters run in parallel, and so does
+     * the creation of the data sets of a {@link net.engio.pips.reports.ChartGenerator}. Defaults to the number
+     * of available processors. A value of one generates all reports sequentially.
+     *
+     * @return This benchmark
+     */
+    public Benchmark setReportThreads(int threads) {
+        return setProperty(Properties.ReportThreads, threads);
+    }
+
+    public int getReportThreads() {
+        return isDefined(Properties.ReportThreads)
+                ? (Integer) getProperty(Properties.ReportThreads)
+                : Runtime.getRuntime().availableProcessors();
     }
 
-    public String getReportBaseDir() {
+    /**
+     * The directory of the current run, i.e. {@code basePath/title/<timestamp>/}. It is created on first access and
+     * contains the generated reports as well as the {@link ResultStore} of streamed results.
+     */
+    public synchronized String getReportBaseDir() {
+        if(!isDefined(Properties.ReportBaseDir))
+            setProperty(Properties.ReportBaseDir, prepareDirectory());
         return getProperty(Properties.ReportBaseDir);
     }
 
+    /**
+     * Spill the datapoints of sampled execution timers and spilling collectors to disk while the benchmark is running
+     * instead of keeping them in memory. Streamed results are written to the {@link ResultStore}
+     * in the report directory and read back lazily by the reporters.
+     *
+     * @param streamResults True, if results should be streamed to disk
+     * @return This benchmark
+     */
+    public Benchmark setStreamResults(boolean streamResults) {
+        return setProperty(Properties.StreamResults, streamResults);
+    }
+
+    public boolean isStreamingResults() {
+        return isDefined(Properties.StreamResults) && (Boolean) getProperty(Properties.StreamResults);
+    }
+
+    /**
+     * @return The store of streamed results. It is created on first access.
+     */
+    public synchronized ResultStore getResultStore() {
+        if(resultStore == null)
+            resultStore = new ResultStore(new File(getReportBaseDir()));
+        return resultStore;
+    }
+
     private String prepareDirectory() {
         //create directory
         File baseDir = new File(getProperty(Properties.BasePath) + File.separator + getTitle() + File.separator + System.currentTimeMillis());
@@ -194,6 +286,44 @@ public class Benchmark {
         return setProperty(Properties.SampleInterval, sampleInterval);
     }
 
+    /**
+     * @return The interval in milliseconds at which time series are sampled. Defaults to 1000.
+     */
+    public int getSampleInterval() {
+        return isDefined(Properties.SampleInterval) ? (Integer) getProperty(Properties.SampleInterval) : 1000;
+    }
+
+    /**
+     * Additionally feed the measurements of execution timers as a sampled time series into a collector,
+     * e.g. for charts (see {@link ExecutionContext#createExecutionTimer(String)}). Execution timers always record
+     * their latencies into a histogram, the samples are kept in memory unless the results are streamed.
+     *
+     * @param sampleExecutionTimers True, if execution timers should be sampled
+     * @return This benchmark
+     */
+    public Benchmark setSampleExecutionTimers(boolean sampleExecutionTimers) {
+        return setProperty(Properties.SampleExecutionTimers, sampleExecutionTimers);
+    }
+
+    public boolean isSamplingExecutionTimers() {
+        return isDefined(Properties.SampleExecutionTimers) && (Boolean) getProperty(Properties.SampleExecutionTimers);
+    }
+
+    /**
+     * Set the interval at which the progress of running workloads is written to the log.
+     * A value of zero or less disables progress reporting.
+     *
+     * @param progressInterval The interval in milliseconds
+     * @return This benchmark
+     */
+    public Benchmark setProgressInterval(int progressInterval) {
+        return setProperty(Properties.ProgressInterval, progressInterval);
+    }
+
+    public int getProgressInterval() {
+        return isDefined(Properties.ProgressInterval) ? (Integer) getProperty(Properties.ProgressInterval) : 1000;
+    }
+
     public int getTimeoutInSeconds() {
         return getProperty(Properties.TimeoutInSeconds);
     }
@@ -0,0 +1,75 @@
+package net.engio.pips.lab;
+
+import net.engio.pips.lab.workload.Workload;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Publishes the state of a benchmark that is being measured by the {@link Laboratory} and allows to
+ * abort it early.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class BenchmarkMonitor implements BenchmarkMonitorMBean {
+
+    private final Benchmark benchmark;
+
+    private final Map<Workload, WorkloadManager> workloads;
+
+    private final CountDownLatch finishedWorkloads;
+
+    private final long started = System.currentTimeMillis();
+
+    private volatile boolean aborted = false;
+
+    BenchmarkMonitor(Benchmark benchmark, Map<Workload, WorkloadManager> workloads, CountDownLatch finishedWorkloads) {
+        this.benchmark = benchmark;
+        this.workloads = workloads;
+        this.finishedWorkloads = finishedWorkloads;
+    }
+
+    @Override
+    public String getTitle() {
+        return benchmark.getTitle();
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - started;
+    }
+
+    @Override
+    public int getRunningWorkloads() {
+        int running = 0;
+        for (WorkloadManager manager : workloads.values()) {
+            if (manager.isRunning())
+                running++;
+        }
+        return running;
+    }
+
+    @Override
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    @Override
+    public synchronized void abort() {
+        if (aborted)
+            return;
+        aborted = true;
+        // abort the pending workloads first, such that the completion of a running workload can not start them
+        for (WorkloadManager manager : workloads.values()) {
+            // workloads that never started will not signal their completion
+            if (!manager.isStarted() && manager.abort())
+                finishedWorkloads.countDown();
+        }
+        for (WorkloadManager manager : workloads.values()) {
+            if (manager.abort())
+                finishedWorkloads.countDown();
+        }
+    }
+
+}
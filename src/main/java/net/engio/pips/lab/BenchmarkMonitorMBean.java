@@ -0,0 +1,26 @@
+package net.engio.pips.lab;
+
+/**
+ * The management interface of a running benchmark. The progress of its workloads is published
+ * by a {@link WorkloadMonitorMBean} per workload.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface BenchmarkMonitorMBean {
+
+    String getTitle();
+
+    long getElapsedMillis();
+
+    int getRunningWorkloads();
+
+    boolean isAborted();
+
+    /**
+     * Stop all running workloads and skip those that have not yet been started. The benchmark
+     * finishes with the results measured so far.
+     */
+    void abort();
+
+}
@@ -0,0 +1,49 @@
+package net.engio.pips.lab;
+
+/**
+ * A typed key for bindings of an {@link ExecutionContext}. Keys are meant to be created once and stored
+ * in constants such that lookups neither compute a key nor need a cast.
+ *
+ * <pre>
+ * static final ContextKey&lt;Range&lt;String&gt;&gt; Keys = ContextKey.of("keys");
+ *
+ * Range&lt;String&gt; keys = context.get(Keys);
+ * </pre>
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public final class ContextKey<T> {
+
+    private final String name;
+
+    private ContextKey(String name) {
+        this.name = name;
+        name.hashCode(); // computed once and cached by the string
+    }
+
+    public static <T> ContextKey<T> of(String name){
+        if(name == null)
+            throw new IllegalArgumentException("Key must have a name");
+        return new ContextKey<T>(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof ContextKey && name.equals(((ContextKey) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,14 +1,28 @@
 package net.engio.pips.lab;
 
 import net.engio.pips.data.DataCollector;
+import net.engio.pips.data.DataPoint;
 import net.engio.pips.data.filter.Sampler;
 import net.engio.pips.data.utils.ExecutionTimer;
+import net.engio.pips.lab.metrics.HistogramExecutionTimer;
+import net.engio.pips.lab.metrics.LatencyHistogram;
+import net.engio.pips.lab.metrics.LatencyTimer;
+import net.engio.pips.lab.store.SpillingCollector;
+import net.engio.pips.lab.workload.Warmup;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Each execution unit is provided with an execution context. The context allows
  * access to shared objects such as the result collector.
+ * <p>
+ * Bindings are safe to add concurrently. Lookups are served from a flattened snapshot of the bindings of
+ * this context and all its ancestors: a single hash probe without allocation. The snapshot of a context is
+ * rebuilt lazily after the context itself or one of its ancestors changed its bindings, so binding in a
+ * context makes the next lookup in this context and its descendants comparatively expensive. Bindings of
+ * siblings (e.g. other tasks of the same workload) do not affect each other.
  *
  * @author bennidi
  *         Date: 2/11/14
@@ -17,7 +31,12 @@ public class ExecutionContext {
 
     private Benchmark benchmark;
     private ExecutionContext parent;
-    private Map<String, Object> properties = new HashMap<String, Object>();
+    private final Map<String, Object> properties = new ConcurrentHashMap<String, Object>();
+    // incremented on every change of the bindings of this context
+    private final AtomicLong version = new AtomicLong(0);
+    private volatile Snapshot snapshot;
+    // collectors created by this context redirect their datapoints while its task warms up
+    private volatile boolean warmup = false;
     private long started;
     private long finished;
 
@@ -37,30 +56,143 @@ public class ExecutionContext {
         return finished != -1;
     }
 
+    /**
+     * @return True, while the task of this context executes its warmup. Collectors created by this context
+     * record the datapoints of the warmup into separate collectors bound as {@link Warmup#getWarmupId(String)}
+     * and the latencies of timers are moved to histograms bound as {@link Warmup#getWarmupId(String)}
+     * when the warmup ends.
+     */
+    public boolean isWarmup() {
+        return warmup;
+    }
+
+    void setWarmup(boolean warmup) {
+        this.warmup = warmup;
+        String warmupPrefix = Warmup.getWarmupId("");
+        for (Map.Entry<String, Object> binding : new ArrayList<Map.Entry<String, Object>>(properties.entrySet())) {
+            if (binding.getValue() instanceof SpillingCollector && !binding.getKey().startsWith(warmupPrefix)) {
+                SpillingCollector collector = (SpillingCollector) binding.getValue();
+                if (warmup)
+                    redirectWarmup(binding.getKey(), collector);
+                else
+                    collector.setWarmup(null);
+            }
+        }
+    }
+
+    private void redirectWarmup(String collectorId, SpillingCollector collector){
+        SpillingCollector warmupCollector = (SpillingCollector) properties.get(Warmup.getWarmupId(collectorId));
+        if(warmupCollector == null){
+            warmupCollector = benchmark.getResultStore().createCollector(Warmup.getWarmupId(collectorId));
+            bind(Warmup.getWarmupId(collectorId), warmupCollector);
+        }
+        collector.setWarmup(warmupCollector);
+    }
+
     public long getExecutionTime(){
         return isFinished() ? finished - started : -1;
     }
 
+    /**
+     * Create a timer that records latencies (in nanoseconds) into a {@link LatencyHistogram} bound to this context
+     * using the given timer id, like {@link #createLatencyTimer(String)}. If the benchmark samples its execution timers
+     * (see {@link Benchmark#setSampleExecutionTimers(boolean)}), the measurements are additionally fed as a
+     * sampled time series (in milliseconds) into a collector bound as {@link #getSamplesId(String)}.
+     */
     public ExecutionTimer createExecutionTimer(String timerId){
-        DataCollector<Long> timings = createLocalCollector(timerId);
-        Sampler sampler = Sampler.<Long>timeBased((Integer)get(Benchmark.Properties.SampleInterval));
-        sampler.connectTo(timings);
-        ExecutionTimer timer =  new ExecutionTimer(sampler);
-        return timer;
+        LatencyHistogram histogram = new LatencyHistogram();
+        bind(timerId, histogram);
+        if(!benchmark.isSamplingExecutionTimers())
+            return new HistogramExecutionTimer(histogram, null);
+        Sampler<Long> sampler = Sampler.timeBased(benchmark.getSampleInterval());
+        if(benchmark.isStreamingResults())
+            sampler.connectTo(this.<Long>createSpillingCollector(getSamplesId(timerId)));
+        else
+            sampler.connectTo(this.<Long>createLocalCollector(getSamplesId(timerId)));
+        return new HistogramExecutionTimer(histogram, sampler);
+    }
+
+    /**
+     * The id under which the sampled time series of the execution timer with the given id is bound
+     */
+    public static String getSamplesId(String timerId){
+        return timerId + ":samples";
+    }
+
+    /**
+     * Create a timer that records latencies (in nanoseconds) into a {@link LatencyHistogram} with constant
+     * memory footprint. The histogram is bound to this context using the given timer id. Histograms of
+     * different tasks can be merged using {@link Executions#getLatencies(String)}.
+     */
+    public LatencyTimer createLatencyTimer(String timerId){
+        LatencyHistogram histogram = new LatencyHistogram();
+        bind(timerId, histogram);
+        return new LatencyTimer(histogram);
+    }
+
+    /**
+     * Create a collector that streams its datapoints into the {@link net.engio.pips.lab.store.ResultStore} of the benchmark.
+     * The collector is bound to this context using the given id. Datapoints received during the warmup are streamed
+     * into a separate collector bound as {@link Warmup#getWarmupId(String)}.
+     */
+    public <N extends Number> SpillingCollector<N> createSpillingCollector(String collectorId){
+        SpillingCollector<N> collector = benchmark.getResultStore().createCollector(collectorId);
+        bind(collectorId, collector);
+        if(warmup)
+            redirectWarmup(collectorId, collector);
+        return collector;
     }
 
-    public <V> DataCollector<V> createLocalCollector(String collectorId){
-        DataCollector<V> collector = new DataCollector(collectorId);
+    /**
+     * Create a collector that keeps its datapoints in memory. The collector is bound to this context using the given id.
+     * Datapoints received during the warmup are kept in a separate collector bound as {@link Warmup#getWarmupId(String)},
+     * which is created with the first of them.
+     */
+    public <V> DataCollector<V> createLocalCollector(final String collectorId){
+        DataCollector<V> collector = new DataCollector<V>(collectorId){
+
+            private DataCollector<V> warmupCollector;
+
+            @Override
+            public void receive(DataPoint<V> datapoint) {
+                if(!warmup)
+                    super.receive(datapoint);
+                else {
+                    if(warmupCollector == null){
+                        warmupCollector = new DataCollector<V>(Warmup.getWarmupId(collectorId));
+                        bind(Warmup.getWarmupId(collectorId), warmupCollector);
+                    }
+                    warmupCollector.receive(datapoint);
+                }
+            }
+        };
         bind(collectorId, collector);
         return collector;
     }
 
+    /**
+     * Bind the given value to the given key. Binding null removes the binding of this context.
+     */
     public ExecutionContext bind(String key, Object value){
-        properties.put(key, value);
+        if(value == null)
+            properties.remove(key);
+        else
+            properties.put(key, value);
+        version.incrementAndGet();
         return this;
     }
 
+    public <T> ExecutionContext bind(ContextKey<T> key, T value){
+        return bind(key.getName(), value);
+    }
+
+    /**
+     * Bind the given value using its string representation as key. The elements of an array
+     * are bound individually.
+     */
     public ExecutionContext bind(Object value){
+        if(value instanceof Object[])
+            return bindAll((Object[])value);
         return bind(value.toString(), value);
     }
 
@@ -83,10 +215,16 @@ public class ExecutionContext {
         return child;
     }
 
+    ExecutionContext getParent(){
+        return parent;
+    }
+
     public <T> T get(String key) {
-        return properties.containsKey(key)
-                ? (T)properties.get(key)
-                : parent != null ? (T)parent.get(key) : null;
+        return (T)getSnapshot().bindings.get(key);
+    }
+
+    public <T> T get(ContextKey<T> key) {
+        return (T)getSnapshot().bindings.get(key.getName());
     }
 
     public <T> T get(Object key) {
@@ -97,31 +235,45 @@ public class ExecutionContext {
         return getAll(key.toString());
     }
 
+    /**
+     * @return The values bound to the given key in this context and all its ancestors, starting with this context
+     */
     public <T> Collection<T> getAll(String key){
-        LinkedList all = new LinkedList();
-        if(properties.containsKey(key))
-            all.add(properties.get(key));
-        if(parent != null)
-            all.addAll(parent.getAll(key));
+        List all = new ArrayList(4);
+        for(ExecutionContext current = this; current != null; current = current.parent){
+            Object value = current.properties.get(key);
+            if(value != null)
+                all.add(value);
+        }
         return all;
     }
 
-    public <T> Collection<T> getMatching(String key){
-        LinkedList all = new LinkedList();
-        for(String globalKey : getGlobalKeySet())
-            if(globalKey.startsWith(key))all.addAll(getAll(globalKey));
+    /**
+     * @return The values bound to any key starting with the given prefix in this context and all its ancestors
+     */
+    public <T> Collection<T> getMatching(String prefix){
+        List all = new ArrayList();
+        for(ExecutionContext current = this; current != null; current = current.parent)
+            for(Map.Entry<String, Object> binding : current.properties.entrySet())
+                if(binding.getKey().startsWith(prefix))
+                    all.add(binding.getValue());
         return all;
     }
 
-    private Set<String> getGlobalKeySet(){
-        Set<String> keys = new HashSet<String>();
-        keys.addAll(properties.keySet());
-        ExecutionContext current = parent;
-        while(current != null){
-            keys.addAll(parent.properties.keySet());
-            current = current.parent;
+    // the flattened bindings of this context and its ancestors, rebuilt if this context changed its bindings
+    // or the snapshot of the parent is not the one it was built from
+    private Snapshot getSnapshot(){
+        Snapshot current = snapshot;
+        long version = this.version.get();
+        Snapshot inherited = parent != null ? parent.getSnapshot() : null;
+        if(current == null || current.version != version || current.inherited != inherited){
+            Map<String, Object> flattened = inherited != null
+                    ? new HashMap<String, Object>(inherited.bindings)
+                    : new HashMap<String, Object>();
+            flattened.putAll(properties);
+            snapshot = current = new Snapshot(version, inherited, Collections.unmodifiableMap(flattened));
         }
-        return keys;
+        return current;
     }
 
     public Map<String, Object> getProperties() {
@@ -129,7 +281,21 @@ public class ExecutionContext {
     }
 
     public boolean containsKey(String key) {
-        return properties.containsKey(key)
-                || parent != null ? parent.containsKey(key) : false;
+        return getSnapshot().bindings.containsKey(key);
+    }
+
+    private static final class Snapshot {
+
+        private final long version;
+
+        private final Snapshot inherited;
+
+        private final Map<String, Object> bindings;
+
+        private Snapshot(long version, Snapshot inherited, Map<String, Object> bindings) {
+            this.version = version;
+            this.inherited = inherited;
+            this.bindings = bindings;
+        }
     }
 }
@@ -1,10 +1,19 @@
 package net.engio.pips.lab;
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
+import net.engio.pips.lab.metrics.HistogramSeries;
+import net.engio.pips.lab.metrics.LatencyHistogram;
+import net.engio.pips.lab.metrics.ThroughputMeter;
+import net.engio.pips.lab.store.ISeries;
+import net.engio.pips.lab.workload.Warmup;
+import net.engio.pips.lab.workload.Workload;
+
+import java.util.*;
 
 /**
+ * The execution contexts of all tasks of a benchmark. Queries for bound values are answered
+ * from an index that is built once, when the first query is made after contexts were added, and
+ * return unmodifiable views instead of copies.
+ *
  * @author bennidi
  *         Date: 3/13/14
  */
@@ -12,35 +21,327 @@ public class Executions {
 
     private List<ExecutionContext> contexts = new LinkedList<ExecutionContext>();
 
+    private Map<Workload, List<ExecutionContext>> workloads = new LinkedHashMap<Workload, List<ExecutionContext>>();
+
+    private Map<Workload, ThroughputMeter> throughput = new LinkedHashMap<Workload, ThroughputMeter>();
+
+    private Map<Workload, ThroughputMeter> warmupThroughput = new LinkedHashMap<Workload, ThroughputMeter>();
+
+    // built on demand and dropped whenever contexts are added
+    private Index index;
+
+    private Map<Workload, Index> workloadIndexes;
+
     public boolean addAll(Collection<? extends ExecutionContext> executionContexts) {
+        invalidate();
+        return contexts.addAll(executionContexts);
+    }
+
+    public boolean addAll(Workload workload, Collection<? extends ExecutionContext> executionContexts) {
+        List<ExecutionContext> workloadContexts = workloads.get(workload);
+        if(workloadContexts == null){
+            workloadContexts = new LinkedList<ExecutionContext>();
+            workloads.put(workload, workloadContexts);
+        }
+        workloadContexts.addAll(executionContexts);
+        invalidate();
         return contexts.addAll(executionContexts);
     }
 
+    public Set<Workload> getWorkloads() {
+        return Collections.unmodifiableSet(workloads.keySet());
+    }
+
+    /**
+     * @return The contexts of the tasks of the given workload, in the order the tasks were created
+     */
+    public List<ExecutionContext> getContexts(Workload workload) {
+        List<ExecutionContext> workloadContexts = workloads.get(workload);
+        return workloadContexts != null
+                ? Collections.unmodifiableList(workloadContexts)
+                : Collections.<ExecutionContext>emptyList();
+    }
+
+    void setThroughput(Workload workload, ThroughputMeter meter) {
+        throughput.put(workload, meter);
+    }
+
+    void setWarmupThroughput(Workload workload, ThroughputMeter meter) {
+        warmupThroughput.put(workload, meter);
+    }
+
+    /**
+     * @return The completed invocations per second of all tasks of the given workload, sampled at the
+     * sample interval of the benchmark. The series can be added to a {@link net.engio.pips.reports.SeriesGroup}
+     */
+    public ISeries getThroughput(Workload workload) {
+        return getMeter(workload).getThroughput();
+    }
+
+    /**
+     * @return The failed invocations per second of all tasks of the given workload
+     */
+    public ISeries getFailures(Workload workload) {
+        return getMeter(workload).getFailures();
+    }
+
+    /**
+     * @return The total number of successful invocations of all tasks of the given workload, excluding the warmup
+     */
+    public long getCompleted(Workload workload) {
+        return getMeter(workload).getCompleted();
+    }
+
+    /**
+     * @return The total number of invocations of all tasks of the given workload that threw an exception, excluding the warmup
+     */
+    public long getFailed(Workload workload) {
+        return getMeter(workload).getFailed();
+    }
+
+    /**
+     * @return The completed invocations per second of all tasks of the given workload over its measurement,
+     * i.e. from the end of the warmup to the end of the workload
+     */
+    public double getMeanThroughput(Workload workload) {
+        return getMeter(workload).getMeanThroughput();
+    }
+
+    /**
+     * @return The total number of successful invocations of all tasks of the given workload during their warmup
+     */
+    public long getWarmupCompleted(Workload workload) {
+        ThroughputMeter meter = warmupThroughput.get(workload);
+        return meter != null ? meter.getCompleted() : 0;
+    }
+
+    public long getWarmupFailed(Workload workload) {
+        ThroughputMeter meter = warmupThroughput.get(workload);
+        return meter != null ? meter.getFailed() : 0;
+    }
+
+    /**
+     * @return The completed invocations per second of the given operation of a workload, e.g. of a
+     * {@link net.engio.pips.lab.workload.TaskMix}
+     */
+    public ISeries getThroughput(Workload workload, String operation) {
+        return getMeter(workload).getMeter(operation).getThroughput();
+    }
+
+    public ISeries getFailures(Workload workload, String operation) {
+        return getMeter(workload).getMeter(operation).getFailures();
+    }
+
+    public long getCompleted(Workload workload, String operation) {
+        return getMeter(workload).getMeter(operation).getCompleted();
+    }
+
+    public long getFailed(Workload workload, String operation) {
+        return getMeter(workload).getMeter(operation).getFailed();
+    }
+
+    /**
+     * @return The throughput and failure series of all workloads (and their operations) as well as the merged latency
+     * histograms of all timers except those of the warmup (see {@link HistogramSeries}). These are the series that are
+     * stored with the results of a run and compared by a {@link net.engio.pips.reports.RegressionCheck}.
+     */
+    public List<ISeries> getSeries(){
+        List<ISeries> series = new ArrayList<ISeries>();
+        for(ThroughputMeter meter : throughput.values())
+            addSeries(series, meter);
+        Set<String> timers = new TreeSet<String>();
+        String warmup = Warmup.getWarmupId("");
+        for(ExecutionContext ctx : contexts)
+            for(Map.Entry<String, Object> binding : ctx.getProperties().entrySet())
+                if(binding.getValue() instanceof LatencyHistogram && !binding.getKey().startsWith(warmup))
+                    timers.add(binding.getKey());
+        for(String timer : timers)
+            series.add(new HistogramSeries(timer, getLatencies(timer)));
+        return series;
+    }
+
+    private static void addSeries(List<ISeries> series, ThroughputMeter meter){
+        series.add(meter.getThroughput());
+        series.add(meter.getFailures());
+        for(String operation : meter.getOperations())
+            addSeries(series, meter.getMeter(operation));
+    }
+
+    private ThroughputMeter getMeter(Workload workload){
+        ThroughputMeter meter = throughput.get(workload);
+        return meter != null ? meter : new ThroughputMeter(workload.getName());
+    }
+
+    /**
+     * Merge all latency histograms bound to the given key across all executions of the benchmark.
+     *
+     * @param timerId The key used to bind the histograms, e.g. the id used for {@link ExecutionContext#createLatencyTimer(String)}
+     * @return A new histogram containing all recorded values
+     */
+    public LatencyHistogram getLatencies(String timerId) {
+        return merge(contexts, timerId);
+    }
+
+    /**
+     * Merge all latency histograms bound to the given key across all tasks of the given workload.
+     */
+    public LatencyHistogram getLatencies(Workload workload, String timerId) {
+        List<ExecutionContext> workloadContexts = workloads.get(workload);
+        return merge(workloadContexts != null ? workloadContexts : Collections.<ExecutionContext>emptyList(), timerId);
+    }
+
+    private LatencyHistogram merge(Collection<ExecutionContext> executionContexts, String timerId){
+        LatencyHistogram merged = new LatencyHistogram();
+        for(ExecutionContext ctx : executionContexts){
+            Object histogram = ctx.getProperties().get(timerId); // only consider values bound to the task itself
+            if(histogram instanceof LatencyHistogram)
+                merged.merge((LatencyHistogram)histogram);
+        }
+        return merged;
+    }
+
     public boolean add(ExecutionContext executionContext) {
+        invalidate();
         return contexts.add(executionContext);
     }
 
+    /**
+     * Build the index of all bound values. Queries build the index if necessary, so calling
+     * this method is only needed to control when the work is done.
+     */
+    public synchronized Executions index(){
+        if(index == null){
+            index = new Index(contexts);
+            workloadIndexes = new HashMap<Workload, Index>(workloads.size());
+            for(Map.Entry<Workload, List<ExecutionContext>> workload : workloads.entrySet())
+                workloadIndexes.put(workload.getKey(), new Index(workload.getValue()));
+        }
+        return this;
+    }
+
+    private synchronized void invalidate(){
+        index = null;
+        workloadIndexes = null;
+    }
 
+    private synchronized Index getIndex(Workload workload){
+        index();
+        Index workloadIndex = workloadIndexes.get(workload);
+        return workloadIndex != null ? workloadIndex : Index.Empty;
+    }
+
+    private synchronized Index getIndex(){
+        return index().index;
+    }
 
     public <T> Collection<T> getAll(Object key) {
         return getAll(key.toString());
     }
 
+    /**
+     * @return The values bound to the given key by any execution context (including the values
+     * of its ancestors). The collection is an unmodifiable view of the index. The values are in the order
+     * in which their contexts were added, each followed by the values of its ancestors.
+     */
     public <T> Collection<T> getAll(String key) {
-        LinkedList<T> all = new LinkedList<T>();
-        for(ExecutionContext ctx : contexts){
-            all.addAll(ctx.<T>getAll(key));
-        }
-        return all;
+        return getIndex().getAll(key);
     }
 
-    public <T> Collection<T> getMatching(String key) {
-        LinkedList<T> matching = new LinkedList<T>();
-        for(ExecutionContext ctx : contexts){
-            matching.addAll(ctx.<T>getMatching(key));
-        }
-        return matching;
+    /**
+     * @return The values bound to the given key by the tasks of the given workload, in task order
+     * (see {@link #getAll(String)})
+     */
+    public <T> Collection<T> getAll(Workload workload, String key) {
+        return getIndex(workload).getAll(key);
+    }
+
+    /**
+     * @return The values bound to any key starting with the given prefix by any execution context
+     * (including the values of its ancestors). The collection is an unmodifiable view of the index.
+     * Unlike {@link ExecutionContext#getMatching(String)}, the values are grouped by key in the natural order
+     * of the keys and only within a key ordered like {@link #getAll(String)}.
+     */
+    public <T> Collection<T> getMatching(String prefix) {
+        return getIndex().getMatching(prefix);
+    }
+
+    /**
+     * @return The values bound to any key starting with the given prefix by the tasks of the given workload,
+     * ordered like {@link #getMatching(String)}
+     */
+    public <T> Collection<T> getMatching(Workload workload, String prefix) {
+        return getIndex(workload).getMatching(prefix);
     }
 
+    /**
+     * All values bound by a set of contexts (and their ancestors), sorted by key for prefix lookups
+     */
+    private static class Index {
+
+        private static final Index Empty = new Index(Collections.<ExecutionContext>emptyList());
+
+        private final TreeMap<String, List<Object>> values = new TreeMap<String, List<Object>>();
+
+        private Index(Collection<ExecutionContext> contexts) {
+            // collect the bindings of each context and its ancestors (ancestors are counted once per descendant)
+            for(ExecutionContext ctx : contexts)
+                for(ExecutionContext current = ctx; current != null; current = current.getParent())
+                    for(Map.Entry<String, Object> binding : current.getProperties().entrySet()){
+                        List<Object> bound = values.get(binding.getKey());
+                        if(bound == null){
+                            bound = new ArrayList<Object>();
+                            values.put(binding.getKey(), bound);
+                        }
+                        bound.add(binding.getValue());
+                    }
+        }
+
+        private <T> Collection<T> getAll(String key){
+            List<Object> bound = values.get(key);
+            return bound != null
+                    ? (Collection<T>) Collections.unmodifiableList(bound)
+                    : Collections.<T>emptyList();
+        }
+
+        private <T> Collection<T> getMatching(String prefix){
+            final Collection<List<Object>> matching = values.subMap(prefix, prefix + Character.MAX_VALUE).values();
+            return new AbstractCollection<T>() {
+                @Override
+                public Iterator<T> iterator() {
+                    final Iterator<List<Object>> lists = matching.iterator();
+                    return new Iterator<T>() {
+                        private Iterator<Object> current = Collections.emptyList().iterator();
+
+                        @Override
+                        public boolean hasNext() {
+                            while(!current.hasNext() && lists.hasNext())
+                                current = lists.next().iterator();
+                            return current.hasNext();
+                        }
+
+                        @Override
+                        public T next() {
+                            if(!hasNext())
+                                throw new NoSuchElementException();
+                            return (T) current.next();
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for(List<Object> bound : matching)
+                        size += bound.size();
+                    return size;
+                }
+            };
+        }
+    }
 
 }
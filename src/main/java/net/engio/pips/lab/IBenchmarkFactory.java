@@ -0,0 +1,18 @@
+package net.engio.pips.lab;
+
+/**
+ * Creates the benchmarks that are measured at the different load levels of a {@link LoadSearch}.
+ * Each call must return a new benchmark with new workloads because the {@link Laboratory} attaches
+ * its handlers to the workloads it runs.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface IBenchmarkFactory {
+
+    /**
+     * @param load The load level to measure, e.g. the number of parallel tasks or the arrival rate of the workload
+     */
+    Benchmark create(int load);
+
+}
@@ -27,6 +27,11 @@ public class LabException extends RuntimeException {
         WLWithCycleInDuration,
         WLWithCycleInStart,
         WLWithoutStart,
-        WLWithoutDuration
+        WLWithoutDuration,
+        ResultStoreIO,
+        RangeIO,
+        Monitoring,
+        InvalidLoadSearch,
+        PerformanceRegression
     }
 }
@@ -1,22 +1,59 @@
 package net.engio.pips.lab;
 
+import net.engio.pips.lab.store.ISeries;
 import net.engio.pips.lab.workload.ExecutionEvent;
 import net.engio.pips.lab.workload.ExecutionHandler;
+import net.engio.pips.lab.workload.ExecutorFactories;
+import net.engio.pips.lab.workload.IExecutorFactory;
 import net.engio.pips.lab.workload.Workload;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
- * @Author bennidi
+ * @author bennidi
  */
 public class Laboratory {
 
+    // the maximum time to wait for the threads of a workload to terminate after it has finished
+    private static final long ShutdownGracePeriod = 3000;
+
+    /**
+     * The JMX domain of the monitors registered while a benchmark is measured
+     */
+    public static final String MonitoringDomain = "net.engio.pips.lab";
+
+    private IExecutorFactory executorFactory = ExecutorFactories.ThreadPool;
+
+    private boolean monitoring = false;
+
+    /**
+     * Set the strategy used to run the parallel units of all workloads that do not
+     * specify their own. Defaults to {@link ExecutorFactories#ThreadPool}.
+     */
+    public Laboratory setExecutorFactory(IExecutorFactory executorFactory) {
+        this.executorFactory = executorFactory;
+        return this;
+    }
+
+    /**
+     * Publish the progress of each benchmark over JMX while it is being measured. A {@link BenchmarkMonitorMBean}
+     * (which allows to abort the benchmark) and a {@link WorkloadMonitorMBean} per workload are registered with
+     * the platform MBean server under the {@link #MonitoringDomain} and unregistered once the benchmark finished.
+     */
+    public Laboratory setMonitoring(boolean monitoring) {
+        this.monitoring = monitoring;
+        return this;
+    }
+
     public void run(Benchmark... benchmarks) throws Exception {
         for(Benchmark benchmark : benchmarks){
             benchmark.verifyWorkloads();
@@ -28,13 +65,21 @@ public class Laboratory {
             log.println("Generating reports....");
             benchmark.generateReports();   */
         }
-
-        Thread.sleep(3000); // wait for shutdown
     }
 
 
 
 
+    /**
+     * Run the benchmarks of the given search at increasing load levels until the maximum load that meets
+     * its latency objective has been found.
+     *
+     * @return The throughput and latency measured at each load level
+     */
+    public LoadCurve search(LoadSearch search) throws Exception {
+        return search.run(this);
+    }
+
     public void measure(final Benchmark benchmark) {
         // each workload will run in its own thread
         final ExecutorService executor = Executors.newFixedThreadPool(benchmark.getWorkloads().size(), new ThreadFactory() {
@@ -50,9 +95,9 @@ public class Laboratory {
         });
 
         // keeping track of workloads and their corresponding executables
-        final Map<Workload, WorkloadManager> workloads = new HashMap<Workload, WorkloadManager>(benchmark.getWorkloads().size());
+        final Map<Workload, WorkloadManager> workloads = new LinkedHashMap<Workload, WorkloadManager>(benchmark.getWorkloads().size());
         //final Map<Workload, Future<Long>> scheduled = Collections.synchronizedMap(new HashMap<Workload, Future<Long>>(experiment.getWorkloads().size()));
-        final AtomicInteger finishedWorkloads = new AtomicInteger(0);
+        final CountDownLatch finishedWorkloads = new CountDownLatch(benchmark.getWorkloads().size());
 
         final PrintWriter log  = new PrintWriter(benchmark.getLogStream(), true);
         final Timer timer = new Timer(true);
@@ -61,19 +106,19 @@ public class Laboratory {
         log.println("Starting experiment at " + start );
         // prepare workloads
         for(final Workload workload : benchmark.getWorkloads()){
-            workloads.put(workload, new WorkloadManager(workload, benchmark));
+            workloads.put(workload, new WorkloadManager(workload, benchmark, timer, executorFactory));
 
             // keep track of finished workloads
             workload.handle(ExecutionEvent.WorkloadCompletion, new ExecutionHandler() {
                 @Override
                 public void handle(ExecutionContext context) {
-                    finishedWorkloads.incrementAndGet();
+                    finishedWorkloads.countDown();
                 }
             });
 
-            // cancel workloads when duration is exceeded
+            // cancel workloads when duration is exceeded (the duration starts after the warmup)
             if(workload.getDuration().isTimeBased()){
-                workload.handle(ExecutionEvent.WorkloadInitialization, new ExecutionHandler() {
+                workload.handle(workload.hasWarmup() ? ExecutionEvent.WarmupCompletion : ExecutionEvent.WorkloadInitialization, new ExecutionHandler() {
                     @Override
                     public void handle(ExecutionContext context) {
                         Date timeout = new Date(System.currentTimeMillis() + workload.getDuration().inMillisecs());
@@ -110,6 +155,17 @@ public class Laboratory {
             }
         }
 
+        final List<ObjectName> monitors;
+        try {
+            monitors = monitoring
+                    ? registerMonitors(benchmark, new BenchmarkMonitor(benchmark, workloads, finishedWorkloads), workloads)
+                    : Collections.<ObjectName>emptyList();
+        } catch (LabException e) {
+            timer.cancel();
+            executor.shutdown();
+            throw e;
+        }
+
         // schedule workloads
         for(final Workload workload : benchmark.getWorkloads()){
             // either now
@@ -129,23 +185,70 @@ public class Laboratory {
 
         // wait until all tasks have been executed
         try {
-            while(finishedWorkloads.get() < benchmark.getWorkloads().size())
-                Thread.sleep(1000);
+            finishedWorkloads.await();
+            // wait for the threads of stopped workloads to leave their current round
+            for(Map.Entry<Workload, WorkloadManager> workMan : workloads.entrySet()){
+                if(!workMan.getValue().awaitTermination(ShutdownGracePeriod))
+                    log.println("Tasks of " + workMan.getKey().getName() + " are still running after shutdown");
+            }
         } catch (InterruptedException e) {
             e.printStackTrace();
             throw new RuntimeException(e);
         }finally {
+            timer.cancel();
+            executor.shutdown();
+            unregisterMonitors(monitors);
             log.println("Finished experiment");
 
             // merge contexts
             Executions executions = new Executions();
-            for(WorkloadManager workMan : workloads.values())
-                 executions.addAll(workMan.getContexts());
-            benchmark.setExecutions(executions);
+            for(Map.Entry<Workload, WorkloadManager> workMan : workloads.entrySet()){
+                 executions.addAll(workMan.getKey(), workMan.getValue().getContexts());
+                 executions.setThroughput(workMan.getKey(), workMan.getValue().getThroughput());
+                 executions.setWarmupThroughput(workMan.getKey(), workMan.getValue().getWarmupThroughput());
+            }
+            benchmark.setExecutions(executions.index());
+            // all tasks have terminated -> store the metrics of the run and spill the remaining buffered datapoints
+            if(benchmark.isStreamingResults()){
+                for(ISeries series : executions.getSeries())
+                    benchmark.getResultStore().store(series);
+                benchmark.getResultStore().close();
+            }
         }
 
     }
 
+    private List<ObjectName> registerMonitors(Benchmark benchmark, BenchmarkMonitor benchmarkMonitor, Map<Workload, WorkloadManager> workloads) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        List<ObjectName> monitors = new ArrayList<ObjectName>(workloads.size() + 1);
+        String title = ObjectName.quote(benchmark.getTitle());
+        try {
+            ObjectName name = new ObjectName(MonitoringDomain + ":type=Benchmark,name=" + title);
+            server.registerMBean(benchmarkMonitor, name);
+            monitors.add(name);
+            for(Map.Entry<Workload, WorkloadManager> workMan : workloads.entrySet()){
+                name = new ObjectName(MonitoringDomain + ":type=Workload,benchmark=" + title
+                        + ",name=" + ObjectName.quote(workMan.getKey().getName()));
+                server.registerMBean(new WorkloadMonitor(workMan.getKey(), workMan.getValue()), name);
+                monitors.add(name);
+            }
+            return monitors;
+        } catch (Exception e) {
+            unregisterMonitors(monitors);
+            throw new LabException("Could not register the monitors of " + benchmark.getTitle(), e, LabException.ErrorCode.Monitoring);
+        }
+    }
+
+    private void unregisterMonitors(List<ObjectName> monitors) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for(ObjectName name : monitors){
+            try {
+                server.unregisterMBean(name);
+            } catch (Exception e) {
+                // already gone
+            }
+        }
+    }
 
 }
 
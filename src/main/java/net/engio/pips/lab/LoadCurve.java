@@ -0,0 +1,163 @@
+package net.engio.pips.lab;
+
+import net.engio.pips.lab.metrics.PrimitiveSeries;
+import net.engio.pips.lab.store.ISeries;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of a {@link LoadSearch}: the throughput and latency measured at each load level and
+ * the maximum load that met the latency objective.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class LoadCurve {
+
+    private final String workload;
+
+    private final double percentile;
+
+    private final long maxLatency;
+
+    private final List<Point> points = new ArrayList<Point>();
+
+    private Point maxSustainable;
+
+    LoadCurve(String workload, double percentile, long maxLatency) {
+        this.workload = workload;
+        this.percentile = percentile;
+        this.maxLatency = maxLatency;
+    }
+
+    void add(Point point) {
+        points.add(point);
+        if (point.isWithinObjective() && (maxSustainable == null || point.getLoad() > maxSustainable.getLoad()))
+            maxSustainable = point;
+    }
+
+    /**
+     * @return The measured points in the order of their load
+     */
+    public List<Point> getPoints() {
+        List<Point> sorted = new ArrayList<Point>(points);
+        Collections.sort(sorted, new Comparator<Point>() {
+            @Override
+            public int compare(Point p1, Point p2) {
+                return p1.getLoad() < p2.getLoad() ? -1 : p1.getLoad() == p2.getLoad() ? 0 : 1;
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * @return The point with the highest load that met the latency objective or null, if even the initial load violated it
+     */
+    public Point getMaxSustainable() {
+        return maxSustainable;
+    }
+
+    /**
+     * @return The highest load that met the latency objective or -1, if even the initial load violated it
+     */
+    public int getMaxSustainableLoad() {
+        return maxSustainable == null ? -1 : maxSustainable.getLoad();
+    }
+
+    /**
+     * @return The latency percentile (in nanoseconds) over the throughput (in operations per second) of all points
+     */
+    public ISeries getLatencyOverThroughput() {
+        List<Point> sorted = new ArrayList<Point>(points);
+        Collections.sort(sorted, new Comparator<Point>() {
+            @Override
+            public int compare(Point p1, Point p2) {
+                return Double.compare(p1.getThroughput(), p2.getThroughput());
+            }
+        });
+        PrimitiveSeries curve = new PrimitiveSeries(workload + ":latency-vs-throughput");
+        for (Point point : sorted)
+            curve.add(Math.round(point.getThroughput()), point.getLatency());
+        return curve;
+    }
+
+    public String getWorkload() {
+        return workload;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder curve = new StringBuilder();
+        curve.append(workload).append(": p").append(percentile).append(" <= ")
+                .append(TimeUnit.NANOSECONDS.toMicros(maxLatency)).append("us");
+        curve.append(", max sustainable load ").append(getMaxSustainableLoad());
+        for (Point point : getPoints())
+            curve.append("\n").append(point);
+        return curve.toString();
+    }
+
+    /**
+     * The throughput and latency measured at a single load level
+     */
+    public static class Point {
+
+        private final int load;
+
+        private final double throughput;
+
+        private final long latency;
+
+        private final long failed;
+
+        private final boolean withinObjective;
+
+        Point(int load, double throughput, long latency, long failed, boolean withinObjective) {
+            this.load = load;
+            this.throughput = throughput;
+            this.latency = latency;
+            this.failed = failed;
+            this.withinObjective = withinObjective;
+        }
+
+        public int getLoad() {
+            return load;
+        }
+
+        /**
+         * @return The completed operations per second
+         */
+        public double getThroughput() {
+            return throughput;
+        }
+
+        /**
+         * @return The latency at the searched percentile in nanoseconds
+         */
+        public long getLatency() {
+            return latency;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public boolean isWithinObjective() {
+            return withinObjective;
+        }
+
+        @Override
+        public String toString() {
+            return "load=" + load + ",throughput=" + Math.round(throughput) + ",latency=" + latency
+                    + ",failed=" + failed + (withinObjective ? "" : " (violates objective)");
+        }
+    }
+}
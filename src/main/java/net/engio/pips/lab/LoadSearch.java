@@ -0,0 +1,169 @@
+package net.engio.pips.lab;
+
+import net.engio.pips.lab.metrics.LatencyHistogram;
+import net.engio.pips.lab.workload.Workload;
+
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches the maximum load of a workload that still meets a latency objective, e.g. "p99 &lt;= 5ms".
+ * The load is increased geometrically from the initial load until the objective is violated or the maximum load
+ * is reached. The interval between the last load that met the objective and the first one that violated it is then
+ * narrowed down by binary search until it is not wider than the configured precision.
+ * <p>
+ * Each load level is measured with a new benchmark created by the {@link IBenchmarkFactory}, so the load
+ * can be any parameter of the workload, typically its parallel tasks (closed loop) or its arrival rate (open loop).
+ * The throughput of a level is the mean throughput of the workload during its measurement (excluding the warmup,
+ * see {@link Executions#getMeanThroughput(Workload)}).
+ * <p>
+ * Run the search using {@link Laboratory#search(LoadSearch)}.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class LoadSearch {
+
+    private final String workload;
+
+    private final IBenchmarkFactory benchmarks;
+
+    private String latencyId;
+
+    private double percentile = 99;
+
+    private long maxLatency = -1;
+
+    private int initialLoad = 1;
+
+    private int maxLoad = Integer.MAX_VALUE;
+
+    private double growthFactor = 2;
+
+    private int precision = 1;
+
+    /**
+     * @param workload   The name of the workload whose load is searched
+     * @param benchmarks Creates a benchmark containing the workload for a given load level
+     */
+    public LoadSearch(String workload, IBenchmarkFactory benchmarks) {
+        this.workload = workload;
+        this.benchmarks = benchmarks;
+    }
+
+    /**
+     * Set the latency objective that each sustainable load level must meet.
+     *
+     * @param percentile The percentile of the latencies, e.g. 99
+     * @param maxLatency The maximum latency at the given percentile
+     */
+    public LoadSearch setObjective(double percentile, long maxLatency, TimeUnit unit) {
+        this.percentile = percentile;
+        this.maxLatency = unit.toNanos(maxLatency);
+        return this;
+    }
+
+    /**
+     * Set the id of the latencies to compare with the objective. Defaults to {@link Workload#getLatencyId()},
+     * which is recorded by open loop and batch workloads. Closed loop workloads can use the id of their latency timer.
+     */
+    public LoadSearch setLatencyId(String latencyId) {
+        this.latencyId = latencyId;
+        return this;
+    }
+
+    public LoadSearch setInitialLoad(int initialLoad) {
+        this.initialLoad = initialLoad;
+        return this;
+    }
+
+    public LoadSearch setMaxLoad(int maxLoad) {
+        this.maxLoad = maxLoad;
+        return this;
+    }
+
+    /**
+     * Set the factor by which the load is increased until the objective is violated. Defaults to 2.
+     */
+    public LoadSearch setGrowthFactor(double growthFactor) {
+        this.growthFactor = growthFactor;
+        return this;
+    }
+
+    /**
+     * Set the width of the load interval at which the binary search stops. Defaults to 1.
+     */
+    public LoadSearch setPrecision(int precision) {
+        this.precision = precision;
+        return this;
+    }
+
+    void verify() {
+        if (maxLatency < 0)
+            throw new LabException("Load search without latency objective: " + workload, LabException.ErrorCode.InvalidLoadSearch);
+        if (percentile <= 0 || percentile > 100)
+            throw new LabException("Percentile of load search not in (0,100]: " + percentile, LabException.ErrorCode.InvalidLoadSearch);
+        if (initialLoad < 1 || maxLoad < initialLoad)
+            throw new LabException("Invalid load range of search: [" + initialLoad + "," + maxLoad + "]", LabException.ErrorCode.InvalidLoadSearch);
+        if (growthFactor <= 1)
+            throw new LabException("Growth factor of load search must be greater than 1: " + growthFactor, LabException.ErrorCode.InvalidLoadSearch);
+        if (precision < 1)
+            throw new LabException("Precision of load search must be positive: " + precision, LabException.ErrorCode.InvalidLoadSearch);
+    }
+
+    LoadCurve run(Laboratory lab) throws Exception {
+        verify();
+        LoadCurve curve = new LoadCurve(workload, percentile, maxLatency);
+        // ramp up until the objective is violated
+        int load = initialLoad;
+        int sustainable = -1, violated = -1;
+        while (violated < 0) {
+            LoadCurve.Point point = measure(lab, load);
+            curve.add(point);
+            if (!point.isWithinObjective())
+                violated = load;
+            else {
+                sustainable = load;
+                if (load == maxLoad)
+                    break;
+                load = (int) Math.min(maxLoad, Math.max(load + 1L, (long) Math.ceil(load * growthFactor)));
+            }
+        }
+        // narrow down the interval between the last sustainable and the first violating load
+        if (sustainable > 0 && violated > 0) {
+            while (violated - sustainable > precision) {
+                int mid = sustainable + (violated - sustainable) / 2;
+                LoadCurve.Point point = measure(lab, mid);
+                curve.add(point);
+                if (point.isWithinObjective())
+                    sustainable = mid;
+                else
+                    violated = mid;
+            }
+        }
+        return curve;
+    }
+
+    private LoadCurve.Point measure(Laboratory lab, int load) throws Exception {
+        Benchmark benchmark = benchmarks.create(load);
+        Workload measured = null;
+        for (Workload candidate : benchmark.getWorkloads())
+            if (candidate.getName().equals(workload))
+                measured = candidate;
+        if (measured == null)
+            throw new LabException("Benchmark of load search does not contain workload " + workload, LabException.ErrorCode.InvalidLoadSearch);
+
+        lab.run(benchmark);
+
+        Executions executions = benchmark.getExecutions();
+        LatencyHistogram latencies = executions.getLatencies(measured, latencyId != null ? latencyId : measured.getLatencyId());
+        if (latencies.getCount() == 0)
+            throw new LabException("No latencies recorded by " + workload + " to compare with the objective", LabException.ErrorCode.InvalidLoadSearch);
+        long latency = latencies.getValueAtPercentile(percentile);
+        double throughput = executions.getMeanThroughput(measured);
+        LoadCurve.Point point = new LoadCurve.Point(load, throughput, latency, executions.getFailed(measured), latency <= maxLatency);
+        new PrintWriter(benchmark.getLogStream(), true).println("Load search " + workload + ": " + point);
+        return point;
+    }
+
+}
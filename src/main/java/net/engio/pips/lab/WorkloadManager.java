@@ -1,15 +1,23 @@
 package net.engio.pips.lab;
 
+import net.engio.pips.lab.metrics.LatencyHistogram;
+import net.engio.pips.lab.metrics.TaskCounter;
+import net.engio.pips.lab.metrics.ThroughputMeter;
+import net.engio.pips.lab.workload.ArrivalRate;
 import net.engio.pips.lab.workload.ExecutionEvent;
+import net.engio.pips.lab.workload.ExecutionPhase;
+import net.engio.pips.lab.workload.IBatchTask;
+import net.engio.pips.lab.workload.IExecutorFactory;
 import net.engio.pips.lab.workload.ITask;
 import net.engio.pips.lab.workload.ITaskFactory;
+import net.engio.pips.lab.workload.Warmup;
 import net.engio.pips.lab.workload.Workload;
 
 import java.io.PrintWriter;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Todo: Add javadoc
@@ -24,83 +32,190 @@ class WorkloadManager {
     private ExecutorService workloadExecutor;
     private List<Future> scheduledTasks = new LinkedList<Future>();
     private Future scheduledWorkload;
-    private List<ExecutionContext> contexts = new LinkedList<ExecutionContext>();
+    private final List<ExecutionContext> contexts = Collections.synchronizedList(new ArrayList<ExecutionContext>());
+    private final AtomicInteger activeTasks = new AtomicInteger(0);
+    private final ThroughputMeter throughput;
+    private final ThroughputMeter warmupThroughput; // counts the warmup operations separately from the measurement
+    private volatile TimerTask throughputSampler;
     private volatile boolean stopped = false;
+    private volatile boolean running = false;
+    private boolean aborted = false;
+    private Long scheduleStart; // the start of the arrival schedules of all parallel units
+    private final PrintWriter log;
+    private final Timer timer;
+    private final int progressInterval;
+    private final int sampleInterval;
+    private final IExecutorFactory executorFactory;
 
-    WorkloadManager(Workload workload, Benchmark benchmark) {
+    WorkloadManager(Workload workload, Benchmark benchmark, Timer timer, IExecutorFactory defaultExecutorFactory) {
         this.workload = workload;
+        this.timer = timer;
+        this.executorFactory = workload.getExecutorFactory() != null ? workload.getExecutorFactory() : defaultExecutorFactory;
+        this.progressInterval = benchmark.getProgressInterval();
+        this.sampleInterval = benchmark.getSampleInterval();
+        this.throughput = new ThroughputMeter(workload.getName());
+        this.warmupThroughput = new ThroughputMeter(Warmup.getWarmupId(workload.getName()));
+        // the log is never written from the per-round path unless round tracing is enabled
+        this.log = new PrintWriter(benchmark.getLogStream(), true);
         createScheduler(benchmark, benchmark.getClobalContext().getChild());
     }
 
-    void stop() {
+    synchronized void stop() {
         stopped = true;
         for (Future task : scheduledTasks)
             task.cancel(true); // this doesn't seem to have any effect
         System.out.println("Canceling workload " + workload.getName());
-        scheduledWorkload.cancel(true);
+        if (scheduledWorkload != null)
+            scheduledWorkload.cancel(true);
         workloadExecutor.shutdown();
     }
 
-    Future start(ExecutorService executor) {
+    /**
+     * Let the tasks of a started workload leave their loops after the current round or prevent the workload from
+     * being started later on. Unlike {@link #stop()}, the scheduler is not cancelled such that a workload which has
+     * been started always runs its completion handlers.
+     *
+     * @return True, if the workload had not been started (and hence will never signal its completion)
+     */
+    synchronized boolean abort() {
+        if (aborted)
+            return false;
+        aborted = stopped = true;
+        if (isStarted())
+            return false;
+        workloadExecutor.shutdown();
+        return true;
+    }
+
+    synchronized boolean isStarted() {
+        return scheduledWorkload != null;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Wait until all threads of this workload have terminated, i.e. no task is running anymore.
+     *
+     * @return True, if all threads terminated within the given time
+     */
+    boolean awaitTermination(long timeoutInMs) throws InterruptedException {
+        workloadExecutor.shutdown();
+        return workloadExecutor.awaitTermination(timeoutInMs, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized Future start(ExecutorService executor) {
+        if (aborted) // aborted before its start condition was met
+            return null;
         return scheduledWorkload = executor.submit(scheduler);
     }
 
     List<ExecutionContext> getContexts() {
-        return contexts;
+        synchronized (contexts) {
+            return new ArrayList<ExecutionContext>(contexts);
+        }
     }
 
-    // create a single executable unit which will run the tasks from the given workload
-    // in its own thread pool
-    private Callable<Long> createScheduler(final Benchmark benchmark, final ExecutionContext workloadContext) {
-        workloadExecutor = Executors.newFixedThreadPool(workload.getParallelUnits(), new ThreadFactory() {
+    /**
+     * @return The number of tasks that are currently executing
+     */
+    int getActiveTasks() {
+        return activeTasks.get();
+    }
 
-            private ThreadGroup group = new ThreadGroup(workload.getName());
-            @Override
-            public Thread newThread(Runnable runnable) {
-                Thread thread = new Thread(group, runnable, workload.getName());
-                thread.setPriority(Thread.NORM_PRIORITY);
-                return thread;
+    /**
+     * Merge the latency histograms bound under the given id in the contexts of all tasks.
+     * The histograms are read while they are being written, so the result is an approximation
+     * when the workload is still running.
+     *
+     * @return The merged histogram or null, if no task has bound a histogram under the given id
+     */
+    LatencyHistogram getLatencies(String timerId) {
+        LatencyHistogram merged = null;
+        for (ExecutionContext context : getContexts()) {
+            Object latencies = context.getProperties().get(timerId); // only consider values bound to the task itself
+            if (latencies instanceof LatencyHistogram) {
+                if (merged == null) merged = new LatencyHistogram();
+                merged.merge((LatencyHistogram) latencies);
             }
-        });
+        }
+        return merged;
+    }
+
+    ThroughputMeter getThroughput() {
+        return throughput;
+    }
+
+    ThroughputMeter getWarmupThroughput() {
+        return warmupThroughput;
+    }
+
+    // create a single executable unit which will run the tasks from the given workload
+    // in its own executor
+    private Callable<Long> createScheduler(final Benchmark benchmark, final ExecutionContext workloadContext) {
+        workloadExecutor = executorFactory.create(workload);
         scheduler = new Callable<Long>() {
             @Override
             public Long call() {
                 final AtomicInteger scheduled = new AtomicInteger(0);// number of scheduled tasks
                 final AtomicInteger finished = new AtomicInteger(0); // number of finished tasks
+                final CountDownLatch allStarted = new CountDownLatch(workload.getParallelUnits());
+                final CountDownLatch allFinished = new CountDownLatch(workload.getParallelUnits());
+                final boolean trace = workload.isTracingRounds();
+                final AtomicInteger warmingUp = new AtomicInteger(workload.getParallelUnits()); // number of tasks in warmup
                 //final ResultCollector collector = experiment.getResults();
                 final ITaskFactory tasks = workload.getITaskFactory();
-                final PrintWriter log = new PrintWriter(benchmark.getLogStream(), true);
 
                 log.println("Starting workload " + workload);
                 // call initialization handlers before scheduling the actual tasks
                 workload.started();
+                running = true;
+                workloadContext.bind(ThroughputMeter.Key, throughput);
+                workloadContext.bind(Warmup.getWarmupId(ThroughputMeter.Key), warmupThroughput);
                 workload.getHandler(ExecutionEvent.WorkloadInitialization).handle(workloadContext);
+                TimerTask progressReporter = scheduleProgressReporter();
+                // the throughput of a workload with warmup is sampled once all tasks have finished their warmup
+                if (!workload.hasWarmup())
+                    startThroughputSampler();
+                final long schedulingStarted = System.nanoTime();
                 // create the tasks and schedule for execution
                 for (int i = 0; i < workload.getParallelUnits(); i++) {
-                    log.println("Scheduling task " + workload.getName() + "[" + scheduled.incrementAndGet() + "]");
+                    scheduled.incrementAndGet();
+                    if (trace)
+                        log.println("Scheduling task " + workload.getName() + "[" + scheduled.get() + "]");
                     final int taskNumber = i + 1;
                     final ExecutionContext taskContext = workloadContext.getChild();
+                    final TaskCounter taskProgress = throughput.createCounter();
+                    final TaskCounter warmupProgress = workload.hasWarmup() ? warmupThroughput.createCounter() : null;
                     contexts.add(taskContext);
                     // simply submit a runnable as return values are not important
                     // the runnable creates a new task and keeps executing it according to specified duration
                     scheduledTasks.add(workloadExecutor.submit(new Runnable() {
                         @Override
                         public void run() {
+                            allStarted.countDown();
+                            activeTasks.incrementAndGet();
+                            boolean warmedUp = !workload.hasWarmup();
                             try {
+                                taskContext.bind(ExecutionPhase.Key, warmedUp ? ExecutionPhase.Measurement : ExecutionPhase.Warmup);
                                 ITask task = tasks.create(taskContext);
-                                log.println("Executing task " + workload.getName() + "[" + taskNumber + "]");
-                                int round = 0;
-                                // execute number of times specified
-                                if (workload.getDuration().isRepetitive()) {
-                                    for (int i = 0; i < workload.getDuration().getRepetitions(); i++) {
-                                        execute(task, workload, taskContext, log, taskNumber, ++round);
-                                    }
-
-                                } else { // or as long as depending task has not yet finished
-                                    while (!stopped) {
-                                        execute(task, workload, taskContext, log, taskNumber, ++round);
-                                    }
+                                int operations = 1;
+                                if (task instanceof IBatchTask) {
+                                    operations = workload.getBatchSize();
+                                    task = createBatch((IBatchTask) task, taskContext);
+                                }
+                                if (trace)
+                                    log.println("Executing task " + workload.getName() + "[" + taskNumber + "]");
+                                if (!warmedUp) {
+                                    warmup(task, taskContext, warmupProgress, operations, taskNumber);
+                                    warmedUp = true;
+                                    finishWarmup(warmingUp, workloadContext);
                                 }
+                                if (workload.isOpenLoop())
+                                    runOpenLoop(task, taskContext, taskProgress, operations, taskNumber);
+                                else
+                                    runClosedLoop(task, taskContext, taskProgress, operations, taskNumber);
                             } catch(InterruptedException e){
                                 // this happens when the workload is shutdown
                                 Thread.currentThread().interrupt();
@@ -109,9 +224,16 @@ class WorkloadManager {
                                 e.printStackTrace();
                                 //throw new RuntimeException(e);
                             } finally {
+                                // tasks that failed before their warmup was finished must not block the warmup completion
+                                if (!warmedUp)
+                                    finishWarmup(warmingUp, workloadContext);
+                                activeTasks.decrementAndGet();
                                 finished.incrementAndGet();
-                                log.println("Finished task: " + workload.getName() + "[" + taskNumber + "]");
-                                log.println("Tasks left in " + workload.getName() + ": " + (scheduled.get() - finished.get()));
+                                if (trace) {
+                                    log.println("Finished task: " + workload.getName() + "[" + taskNumber + "]");
+                                    log.println("Tasks left in " + workload.getName() + ": " + (scheduled.get() - finished.get()));
+                                }
+                                allFinished.countDown();
                             }
                         }
                     }));
@@ -119,8 +241,12 @@ class WorkloadManager {
 
                 // wait until all tasks have been executed
                 try {
-                    while (scheduled.get() > finished.get())
-                        Thread.sleep(1000);
+                    allStarted.await();
+                    long startup = System.nanoTime() - schedulingStarted;
+                    log.println("Started " + workload.getParallelUnits() + " tasks of " + workload.getName() + " on " + executorFactory
+                            + " in " + TimeUnit.NANOSECONDS.toMillis(startup) + "ms ("
+                            + (startup / workload.getParallelUnits() / 1000) + "us per task)");
+                    allFinished.await();
                 } catch (InterruptedException e) {
                     if (workload.getDuration().isDependent() && !workload.getDuration().getDependingOn().isFinished()) {
                         log.println(workload + " interrupted although dependent workload not finished");
@@ -140,8 +266,14 @@ class WorkloadManager {
                     }
 
                 } finally {
+                    if (progressReporter != null)
+                        progressReporter.cancel();
+                    if (throughputSampler != null)
+                        throughputSampler.cancel();
+                    throughput.sample();
                     // signal end
                     workload.finished();
+                    running = false;
                     log.println("Finished workload: " + workload);
                     workload.getHandler(ExecutionEvent.WorkloadCompletion).handle(workloadContext);
                 }
@@ -153,17 +285,169 @@ class WorkloadManager {
     }
 
 
-    private void execute(ITask task, Workload workload, ExecutionContext taskContext, PrintWriter log, int taskNumber, int round) throws InterruptedException {
-        try {
+    // run the task back to back until the warmup condition is met
+    private void warmup(ITask task, ExecutionContext taskContext, TaskCounter taskProgress, int operations, int taskNumber) {
+        final Warmup.Condition warmup = workload.getWarmup().start();
+        taskContext.setWarmup(true);
+        long round = 0;
+        boolean finished = false;
+        while (!finished && !stopped) {
+            long start = System.nanoTime();
+            execute(task, taskContext, taskProgress, operations, taskNumber, ++round);
+            finished = warmup.isFinished(System.nanoTime() - start);
+        }
+        // keep the latencies recorded during warmup separate from those of the measurement
+        for (Map.Entry<String, Object> binding : new ArrayList<Map.Entry<String, Object>>(taskContext.getProperties().entrySet())) {
+            if (binding.getValue() instanceof LatencyHistogram) {
+                LatencyHistogram latencies = (LatencyHistogram) binding.getValue();
+                taskContext.bind(Warmup.getWarmupId(binding.getKey()), latencies.copy());
+                latencies.reset();
+            }
+        }
+        taskContext.setWarmup(false);
+        taskContext.bind(ExecutionPhase.Key, ExecutionPhase.Measurement);
+    }
+
+    // signal the end of the warmup phase when the last task has finished its warmup
+    private void finishWarmup(AtomicInteger warmingUp, ExecutionContext workloadContext) {
+        if (warmingUp.decrementAndGet() == 0) {
+            log.println("Finished warmup of " + workload.getName());
+            startThroughputSampler();
+            workload.getHandler(ExecutionEvent.WarmupCompletion).handle(workloadContext);
+        }
+    }
+
+    // run the task back to back (with optional delay) as often as specified by the duration
+    private void runClosedLoop(ITask task, ExecutionContext taskContext, TaskCounter taskProgress, int operations, int taskNumber) throws InterruptedException {
+        final boolean hasDelay = workload.hasDelay();
+        // execute number of times specified
+        if (workload.getDuration().isRepetitive()) {
+            final int repetitions = workload.getDuration().getRepetitions();
+            for (int round = 1; round <= repetitions && !stopped; round++) {
+                execute(task, taskContext, taskProgress, operations, taskNumber, round);
+                if (hasDelay)
+                    Thread.sleep(workload.getDelay());
+            }
+
+        } else { // or as long as depending task has not yet finished
+            long round = 0;
+            while (!stopped) {
+                execute(task, taskContext, taskProgress, operations, taskNumber, ++round);
+                if (hasDelay)
+                    Thread.sleep(workload.getDelay());
+            }
+        }
+    }
+
+    // issue operations according to the arrival schedule of this parallel unit and measure
+    // their latency from the intended start time (correcting for coordinated omission)
+    private void runOpenLoop(ITask task, ExecutionContext taskContext, TaskCounter taskProgress, int operations, int taskNumber) throws InterruptedException {
+        final LatencyHistogram latencies = new LatencyHistogram();
+        taskContext.bind(workload.getLatencyId(), latencies);
+        final ArrivalRate.Schedule schedule = workload.getArrivalRate()
+                .createSchedule(workload.getParallelUnits(), taskNumber - 1, getScheduleStart());
+        final boolean repetitive = workload.getDuration().isRepetitive();
+        final int repetitions = workload.getDuration().getRepetitions();
+        long round = 0;
+        while (!stopped && (!repetitive || round < repetitions)) {
+            long intendedStart = schedule.next();
+            awaitIntendedStart(intendedStart);
+            execute(task, taskContext, taskProgress, operations, taskNumber, ++round);
+            latencies.record(System.nanoTime() - intendedStart);
+        }
+    }
+
+    // the schedules of all units start when the first unit starts measuring
+    private synchronized long getScheduleStart() {
+        if (scheduleStart == null)
+            scheduleStart = System.nanoTime();
+        return scheduleStart;
+    }
+
+    private void awaitIntendedStart(long intendedStart) throws InterruptedException {
+        long remaining;
+        while ((remaining = intendedStart - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    // the per-round path: no string building, no logging and no allocation unless round tracing is enabled
+    private void execute(ITask task, ExecutionContext taskContext, TaskCounter taskProgress, int operations, int taskNumber, long round) {
+        if (workload.isTracingRounds())
             log.println(workload.getName() + "[" + taskNumber + "]->" + round);
+        try {
             task.run(taskContext);
+            taskProgress.completed(operations);
         } catch (Exception e) {
+            taskProgress.failed(operations);
             log.println("Task" + workload.getName() + "[" + taskNumber + "]" + "  threw an exception while orderly execution: " + e.toString());
             e.printStackTrace();
             //throw new RuntimeException(e);
         }
-        if (workload.hasDelay())
-            Thread.sleep(workload.getDelay());
+    }
+
+    // time each batch and record the latency per operation (open-loop workloads measure the latency of each batch instead)
+    private ITask createBatch(final IBatchTask task, ExecutionContext taskContext) {
+        final int operations = workload.getBatchSize();
+        final LatencyHistogram latencies = workload.isOpenLoop() ? null : new LatencyHistogram();
+        if (latencies != null)
+            taskContext.bind(workload.getLatencyId(), latencies);
+        return new ITask() {
+            @Override
+            public void run(ExecutionContext context) throws Exception {
+                if (latencies == null) {
+                    task.run(context, operations);
+                    return;
+                }
+                long start = System.nanoTime();
+                task.run(context, operations);
+                latencies.record((System.nanoTime() - start) / operations);
+            }
+        };
+    }
+
+    long getCompletedOperations() {
+        return throughput.getCompleted() + throughput.getFailed()
+                + warmupThroughput.getCompleted() + warmupThroughput.getFailed();
+    }
+
+    // aggregate the task counters into the throughput series of the workload, starting with the measurement
+    private void startThroughputSampler() {
+        throughput.sample();
+        TimerTask sampler = new TimerTask() {
+            @Override
+            public void run() {
+                throughput.sample();
+            }
+        };
+        timer.scheduleAtFixedRate(sampler, sampleInterval, sampleInterval);
+        throughputSampler = sampler;
+    }
+
+    // periodically report the progress of all tasks instead of logging each single round
+    private TimerTask scheduleProgressReporter() {
+        if (progressInterval <= 0)
+            return null;
+        TimerTask reporter = new TimerTask() {
+
+            private long lastRounds = 0;
+            private long lastSample = System.currentTimeMillis();
+
+            @Override
+            public void run() {
+                long now = System.currentTimeMillis();
+                long rounds = getCompletedOperations();
+                long elapsed = Math.max(1, now - lastSample);
+                log.println("Progress " + workload.getName() + ": " + rounds + " operations completed ("
+                        + ((rounds - lastRounds) * 1000 / elapsed) + " operations/s)");
+                lastRounds = rounds;
+                lastSample = now;
+            }
+        };
+        timer.scheduleAtFixedRate(reporter, progressInterval, progressInterval);
+        return reporter;
     }
 
 }
@@ -0,0 +1,126 @@
+package net.engio.pips.lab;
+
+import net.engio.pips.lab.metrics.LatencyHistogram;
+import net.engio.pips.lab.workload.Workload;
+
+/**
+ * Publishes the progress of a {@link WorkloadManager} while the workload is running.
+ * Each attribute is computed on access, so reading it does not interfere with the measurement
+ * other than by the cost of merging the latency histograms.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class WorkloadMonitor implements WorkloadMonitorMBean {
+
+    private final Workload workload;
+
+    private final WorkloadManager manager;
+
+    private volatile String latencyId;
+
+    WorkloadMonitor(Workload workload, WorkloadManager manager) {
+        this.workload = workload;
+        this.manager = manager;
+        this.latencyId = workload.getLatencyId();
+    }
+
+    @Override
+    public String getName() {
+        return workload.getName();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return manager.isRunning();
+    }
+
+    @Override
+    public int getActiveTasks() {
+        return manager.getActiveTasks();
+    }
+
+    @Override
+    public long getCompletedOperations() {
+        return manager.getThroughput().getCompleted();
+    }
+
+    @Override
+    public long getFailedOperations() {
+        return manager.getThroughput().getFailed();
+    }
+
+    @Override
+    public double getThroughput() {
+        return manager.getThroughput().getCurrentThroughput();
+    }
+
+    @Override
+    public double getFailureRate() {
+        return manager.getThroughput().getCurrentFailures();
+    }
+
+    @Override
+    public String getLatencyId() {
+        return latencyId;
+    }
+
+    @Override
+    public void setLatencyId(String latencyId) {
+        this.latencyId = latencyId;
+    }
+
+    @Override
+    public long getLatencyCount() {
+        LatencyHistogram latencies = getLatencies();
+        return latencies == null ? -1 : latencies.getCount();
+    }
+
+    @Override
+    public double getLatencyMean() {
+        LatencyHistogram latencies = getLatencies();
+        return latencies == null ? -1 : latencies.getMean();
+    }
+
+    @Override
+    public long getLatencyP50() {
+        return getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP90() {
+        return getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getLatencyP99() {
+        return getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getLatencyP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getLatencyMax() {
+        LatencyHistogram latencies = getLatencies();
+        return latencies == null ? -1 : latencies.getMax();
+    }
+
+    @Override
+    public String latencies(String timerId) {
+        LatencyHistogram latencies = manager.getLatencies(timerId);
+        return latencies == null ? "No latencies bound under " + timerId : latencies.toString();
+    }
+
+    private long getValueAtPercentile(double percentile) {
+        LatencyHistogram latencies = getLatencies();
+        return latencies == null ? -1 : latencies.getValueAtPercentile(percentile);
+    }
+
+    private LatencyHistogram getLatencies() {
+        return manager.getLatencies(latencyId);
+    }
+
+}
@@ -0,0 +1,58 @@
+package net.engio.pips.lab;
+
+/**
+ * The management interface of a running workload. Rates are taken from the latest throughput sample,
+ * latencies are merged from the histograms of all tasks of the workload and reported in nanoseconds.
+ * <p>
+ * The latency attributes report the histograms bound under {@link #getLatencyId()}, which defaults to
+ * {@link net.engio.pips.lab.workload.Workload#getLatencyId()}. Only open loop workloads and batch tasks record
+ * latencies under that id, so closed loop workloads have to set it to the id of their latency timer
+ * (see {@link ExecutionContext#createLatencyTimer(String)}). As long as no task has bound a histogram under
+ * the id, all latency attributes are -1.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface WorkloadMonitorMBean {
+
+    String getName();
+
+    boolean isRunning();
+
+    int getActiveTasks();
+
+    long getCompletedOperations();
+
+    long getFailedOperations();
+
+    double getThroughput();
+
+    double getFailureRate();
+
+    String getLatencyId();
+
+    /**
+     * Set the id of the latency histograms reported by the latency attributes
+     */
+    void setLatencyId(String latencyId);
+
+    long getLatencyCount();
+
+    double getLatencyMean();
+
+    long getLatencyP50();
+
+    long getLatencyP90();
+
+    long getLatencyP99();
+
+    long getLatencyP999();
+
+    long getLatencyMax();
+
+    /**
+     * @return A summary of the latencies recorded under the given timer id, e.g. of a single operation of a task mix
+     */
+    String latencies(String timerId);
+
+}
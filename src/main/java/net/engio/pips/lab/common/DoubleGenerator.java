@@ -0,0 +1,12 @@
+package net.engio.pips.lab.common;
+
+/**
+ * Generates the values of a {@link DoubleRange} without boxing.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface DoubleGenerator {
+
+    public double next();
+}
@@ -0,0 +1,117 @@
+package net.engio.pips.lab.common;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * An immutable set of int values. Values are pre-generated by a corresponding {@link IntGenerator} and stored
+ * in a primitive array, or optionally in a direct buffer outside of the heap. In contrast to {@link Range}
+ * no value is ever boxed, such that drawing inputs from a {@link Cursor} does not allocate.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class IntRange extends PrimitiveRange<IntRange.Cursor> {
+
+    private final int[] elements;
+
+    private final IntBuffer buffer;
+
+    private final int size;
+
+    public IntRange(IntGenerator generator, int size){
+        this.elements = new int[size];
+        for(int i = 0; i < size ; i++){
+            elements[i] = generator.next();
+        }
+        this.buffer = null;
+        this.size = size;
+    }
+
+    private IntRange(IntBuffer buffer){
+        this.elements = null;
+        this.buffer = buffer;
+        this.size = buffer.capacity();
+    }
+
+    /**
+     * Create a range that stores its values in a direct buffer, e.g. to keep large data sets from
+     * increasing the work of the garbage collector.
+     */
+    public static IntRange offHeap(IntGenerator generator, int size){
+        if(size > Integer.MAX_VALUE / 4)
+            throw new IllegalArgumentException("Range of " + size + " values exceeds the maximum buffer size");
+        IntBuffer buffer = ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        for(int i = 0; i < size ; i++){
+            buffer.put(i, generator.next());
+        }
+        return new IntRange(buffer);
+    }
+
+    public int getElement(int index){
+        return elements != null ? elements[index] : buffer.get(index);
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isOffHeap(){
+        return buffer != null;
+    }
+
+    @Override
+    long length(){
+        return size;
+    }
+
+    @Override
+    Cursor createCursor(long from, long to, long seed){
+        return new Cursor(elements, buffer, from, to, seed);
+    }
+
+    /**
+     * A view of a range (or a slice of it) with its own position and random source.
+     * A cursor is not thread-safe.
+     */
+    public static final class Cursor extends PrimitiveCursor<Cursor> {
+
+        private final int[] elements;
+
+        private final IntBuffer buffer;
+
+        private Cursor(int[] elements, IntBuffer buffer, long from, long to, long seed) {
+            super(from, to, seed);
+            this.elements = elements;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Get the next value of the slice. Continues with the first value after the last one.
+         */
+        public int getNext(){
+            return get(nextIndex());
+        }
+
+        public int getRandomElement(){
+            return get(randomIndex());
+        }
+
+        /**
+         * Get an element of the slice selected by the given distribution
+         */
+        public int getElement(KeyDistribution distribution){
+            return get(indexOf(distribution));
+        }
+
+        public int size(){
+            return (int) length();
+        }
+
+        private int get(long index){
+            return elements != null ? elements[(int) index] : buffer.get((int) index);
+        }
+    }
+
+}
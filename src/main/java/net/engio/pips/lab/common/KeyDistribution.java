@@ -0,0 +1,194 @@
+package net.engio.pips.lab.common;
+
+/**
+ * Selects indexes in [0, size) according to a (possibly skewed) popularity distribution. All parameters are
+ * computed when the distribution is created, and sampling costs O(1). Distributions are immutable and draw all
+ * randomness from the given random source, so a single distribution can be shared by the cursors of many threads,
+ * e.g. {@link Range.Cursor#getElement(KeyDistribution)}.
+ * <p>
+ * The size of a distribution should match the size of the cursor it is used with.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public abstract class KeyDistribution {
+
+    protected final long size;
+
+    protected KeyDistribution(long size) {
+        if(size <= 0)
+            throw new IllegalArgumentException("Distribution needs at least one key");
+        this.size = size;
+    }
+
+    /**
+     * @return The next index
+     */
+    public abstract long next(SplitMix64 random);
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Every index is equally likely
+     */
+    public static KeyDistribution uniform(long size){
+        return new KeyDistribution(size) {
+            @Override
+            public long next(SplitMix64 random) {
+                return random.nextLong(this.size);
+            }
+
+            @Override
+            public String toString() {
+                return "Uniform(" + this.size + ")";
+            }
+        };
+    }
+
+    /**
+     * The popularity of the i-th index is proportional to 1/i^theta, i.e. the lowest indexes are the most popular.
+     *
+     * @param theta The skew, must be within (0,1). YCSB uses 0.99
+     */
+    public static KeyDistribution zipfian(long size, double theta){
+        return new Zipfian(size, theta);
+    }
+
+    /**
+     * Zipfian distribution where popular indexes are spread across the whole range (by hashing) instead
+     * of being clustered at the start.
+     */
+    public static KeyDistribution scrambledZipfian(long size, double theta){
+        return new Zipfian(size, theta){
+            @Override
+            public long next(SplitMix64 random) {
+                return (SplitMix64.mix(super.next(random)) >>> 1) % this.size;
+            }
+
+            @Override
+            public String toString() {
+                return "Scrambled" + super.toString();
+            }
+        };
+    }
+
+    /**
+     * Zipfian distribution where the highest indexes, i.e. the most recently added keys, are the most popular
+     */
+    public static KeyDistribution latest(long size, double theta){
+        return new Zipfian(size, theta){
+            @Override
+            public long next(SplitMix64 random) {
+                return this.size - 1 - super.next(random);
+            }
+
+            @Override
+            public String toString() {
+                return "Latest" + super.toString();
+            }
+        };
+    }
+
+    /**
+     * A fraction of the indexes (at the start of the range) receives a fraction of all accesses.
+     * Indexes within and outside the hot set are selected uniformly.
+     *
+     * @param hotSetFraction The fraction of the indexes that are hot, e.g. 0.2
+     * @param hotAccessFraction The fraction of the accesses that hit the hot set, e.g. 0.8
+     */
+    public static KeyDistribution hotspot(long size, final double hotSetFraction, final double hotAccessFraction){
+        if(hotSetFraction < 0 || hotSetFraction > 1 || hotAccessFraction < 0 || hotAccessFraction > 1)
+            throw new IllegalArgumentException("Fractions must be within [0,1]");
+        final long hot = Math.max(1, Math.min(size, (long)(size * hotSetFraction)));
+        final long cold = size - hot;
+        return new KeyDistribution(size) {
+            @Override
+            public long next(SplitMix64 random) {
+                return cold == 0 || random.nextDouble() < hotAccessFraction
+                        ? random.nextLong(hot)
+                        : hot + random.nextLong(cold);
+            }
+
+            @Override
+            public String toString() {
+                return "Hotspot(" + this.size + "," + hotSetFraction + "," + hotAccessFraction + ")";
+            }
+        };
+    }
+
+    /**
+     * The popularity decreases exponentially with the index such that the given percentage of accesses
+     * hits the given fraction of the indexes.
+     *
+     * @param percentile The percentage of accesses, e.g. 95
+     * @param fraction The fraction of the indexes receiving these accesses, e.g. 0.1
+     */
+    public static KeyDistribution exponential(long size, final double percentile, final double fraction){
+        if(percentile <= 0 || percentile >= 100 || fraction <= 0)
+            throw new IllegalArgumentException("Percentile must be within (0,100) and fraction positive");
+        final double gamma = -Math.log(1 - percentile / 100) / (size * fraction);
+        return new KeyDistribution(size) {
+            @Override
+            public long next(SplitMix64 random) {
+                long index;
+                // the expected number of iterations is close to one
+                do {
+                    index = (long)(-Math.log(1 - random.nextDouble()) / gamma);
+                } while(index >= this.size);
+                return index;
+            }
+
+            @Override
+            public String toString() {
+                return "Exponential(" + this.size + "," + percentile + "%," + fraction + ")";
+            }
+        };
+    }
+
+    // Gray et al.: Quickly generating billion-record synthetic databases (the approach taken by YCSB)
+    private static class Zipfian extends KeyDistribution {
+
+        private final double theta;
+        private final double alpha;
+        private final double zetan;
+        private final double eta;
+        private final double halfPowTheta;
+
+        private Zipfian(long size, double theta) {
+            super(size);
+            if(theta <= 0 || theta >= 1)
+                throw new IllegalArgumentException("Theta must be within (0,1)");
+            this.theta = theta;
+            this.alpha = 1 / (1 - theta);
+            this.zetan = zeta(size, theta);
+            this.eta = (1 - Math.pow(2d / size, 1 - theta)) / (1 - zeta(Math.min(2, size), theta) / zetan);
+            this.halfPowTheta = 1 + Math.pow(0.5, theta);
+        }
+
+        // the only O(n) step, computed once
+        private static double zeta(long n, double theta){
+            double sum = 0;
+            for(long i = 1; i <= n; i++)
+                sum += 1 / Math.pow(i, theta);
+            return sum;
+        }
+
+        @Override
+        public long next(SplitMix64 random) {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            if(uz < 1)
+                return 0;
+            if(uz < halfPowTheta && size > 1)
+                return 1;
+            return Math.min(size - 1, (long)(size * Math.pow(eta * u - eta + 1, alpha)));
+        }
+
+        @Override
+        public String toString() {
+            return "Zipfian(" + size + "," + theta + ")";
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package net.engio.pips.lab.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fills the elements of a range in chunks, either all at once using an executor or each chunk on its first access.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+final class LazyChunks {
+
+    static final int ChunkShift = 12;
+
+    static final int ChunkSize = 1 << ChunkShift;
+
+    private static final int Empty = 0, Filling = 1, Filled = 2;
+
+    private final Object[] elements;
+
+    private final ValueGeneratorFactory<?> factory;
+
+    private final AtomicIntegerArray states;
+
+    LazyChunks(Object[] elements, ValueGeneratorFactory<?> factory) {
+        this.elements = elements;
+        this.factory = factory;
+        this.states = new AtomicIntegerArray((elements.length + ChunkSize - 1) >>> ChunkShift);
+    }
+
+    /**
+     * Make sure the chunk containing the given index is filled. Once filled, this is a single volatile read.
+     */
+    void ensure(int index){
+        int chunk = index >>> ChunkShift;
+        if(states.get(chunk) != Filled)
+            fill(chunk);
+    }
+
+    void fillAll(){
+        for(int chunk = 0; chunk < states.length(); chunk++)
+            if(states.get(chunk) != Filled)
+                fill(chunk);
+    }
+
+    private void fill(int chunk){
+        if(states.compareAndSet(chunk, Empty, Filling)){
+            int from = chunk << ChunkShift;
+            try {
+                fill(elements, factory, from, Math.min(elements.length, from + ChunkSize));
+            } catch (RuntimeException e) {
+                states.set(chunk, Empty); // let the next access retry
+                throw e;
+            }
+            states.set(chunk, Filled);
+        }
+        else {
+            // another thread is filling this chunk
+            while(states.get(chunk) != Filled){
+                if(states.get(chunk) == Empty){
+                    fill(chunk);
+                    return;
+                }
+                Thread.yield();
+            }
+        }
+    }
+
+    static void fill(Object[] elements, ValueGeneratorFactory<?> factory, int from, int to){
+        ValueGenerator<?> generator = factory.create(from);
+        for(int i = from; i < to; i++)
+            elements[i] = generator.next();
+    }
+
+    /**
+     * Fill all elements using the given executor, with one partition per task.
+     */
+    static void fill(final Object[] elements, final ValueGeneratorFactory<?> factory, int partitions, ExecutorService executor){
+        List<Future<?>> filled = new ArrayList<Future<?>>(partitions);
+        for(int i = 0; i < partitions; i++){
+            final int from = (int) Slices.start(elements.length, i, partitions);
+            final int to = (int) Slices.start(elements.length, i + 1, partitions);
+            filled.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    fill(elements, factory, from, to);
+                }
+            }));
+        }
+        try {
+            // completion of the futures makes the written elements visible to this thread
+            for(Future<?> partition : filled)
+                partition.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause()
+                    : new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package net.engio.pips.lab.common;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * An immutable set of long values. Values are pre-generated by a corresponding {@link LongGenerator} and stored
+ * in a primitive array, or optionally in a direct buffer outside of the heap. In contrast to {@link Range}
+ * no value is ever boxed, such that drawing inputs from a {@link Cursor} does not allocate.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class LongRange extends PrimitiveRange<LongRange.Cursor> {
+
+    private final long[] elements;
+
+    private final LongBuffer buffer;
+
+    private final int size;
+
+    public LongRange(LongGenerator generator, int size){
+        this.elements = new long[size];
+        for(int i = 0; i < size ; i++){
+            elements[i] = generator.next();
+        }
+        this.buffer = null;
+        this.size = size;
+    }
+
+    private LongRange(LongBuffer buffer){
+        this.elements = null;
+        this.buffer = buffer;
+        this.size = buffer.capacity();
+    }
+
+    /**
+     * Create a range that stores its values in a direct buffer, e.g. to keep large data sets from
+     * increasing the work of the garbage collector.
+     */
+    public static LongRange offHeap(LongGenerator generator, int size){
+        if(size > Integer.MAX_VALUE / 8)
+            throw new IllegalArgumentException("Range of " + size + " values exceeds the maximum buffer size");
+        LongBuffer buffer = ByteBuffer.allocateDirect(size * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+        for(int i = 0; i < size ; i++){
+            buffer.put(i, generator.next());
+        }
+        return new LongRange(buffer);
+    }
+
+    public long getElement(int index){
+        return elements != null ? elements[index] : buffer.get(index);
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isOffHeap(){
+        return buffer != null;
+    }
+
+    @Override
+    long length(){
+        return size;
+    }
+
+    @Override
+    Cursor createCursor(long from, long to, long seed){
+        return new Cursor(elements, buffer, from, to, seed);
+    }
+
+    /**
+     * A view of a range (or a slice of it) with its own position and random source.
+     * A cursor is not thread-safe.
+     */
+    public static final class Cursor extends PrimitiveCursor<Cursor> {
+
+        private final long[] elements;
+
+        private final LongBuffer buffer;
+
+        private Cursor(long[] elements, LongBuffer buffer, long from, long to, long seed) {
+            super(from, to, seed);
+            this.elements = elements;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Get the next value of the slice. Continues with the first value after the last one.
+         */
+        public long getNext(){
+            return get(nextIndex());
+        }
+
+        public long getRandomElement(){
+            return get(randomIndex());
+        }
+
+        /**
+         * Get an element of the slice selected by the given distribution
+         */
+        public long getElement(KeyDistribution distribution){
+            return get(indexOf(distribution));
+        }
+
+        public int size(){
+            return (int) length();
+        }
+
+        private long get(long index){
+            return elements != null ? elements[(int) index] : buffer.get((int) index);
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package net.engio.pips.lab.common;
+
+import java.io.File;
+
+/**
+ * An immutable set of double values stored in a memory-mapped file. The values are generated only once:
+ * opening a range with the same file, size and type again maps the existing file, which makes startup
+ * almost instant and keeps the heap footprint constant regardless of the number of values.
+ * Ranges may exceed 2GB, therefore all indexes are longs.
+ * <p>
+ * The file does not record which generator produced its values. Use distinct file names for distinct data sets.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class MappedDoubleRange extends PrimitiveRange<MappedDoubleRange.Cursor> {
+
+    static final int Type = 1;
+
+    private final MappedSegments segments;
+
+    private MappedDoubleRange(MappedSegments segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Map the values stored in the given file or generate them if the file does not contain
+     * a range of the given size.
+     */
+    public static MappedDoubleRange open(File file, long size, final DoubleGenerator generator){
+        return new MappedDoubleRange(MappedSegments.open(file, Type, size, new MappedSegments.Source() {
+            @Override
+            public long nextBits() {
+                return Double.doubleToRawLongBits(generator.next());
+            }
+        }));
+    }
+
+    /**
+     * Map the values of an existing file
+     */
+    public static MappedDoubleRange open(File file){
+        return new MappedDoubleRange(MappedSegments.open(file, Type));
+    }
+
+    public double getElement(long index){
+        return Double.longBitsToDouble(segments.getBits(index));
+    }
+
+    public long size(){
+        return segments.size();
+    }
+
+    public File getFile(){
+        return segments.getFile();
+    }
+
+    @Override
+    long length(){
+        return segments.size();
+    }
+
+    @Override
+    Cursor createCursor(long from, long to, long seed){
+        return new Cursor(segments, from, to, seed);
+    }
+
+    /**
+     * A view of a range (or a slice of it) with its own position and random source.
+     * A cursor is not thread-safe.
+     */
+    public static final class Cursor extends PrimitiveCursor<Cursor> {
+
+        private final MappedSegments segments;
+
+        private Cursor(MappedSegments segments, long from, long to, long seed) {
+            super(from, to, seed);
+            this.segments = segments;
+        }
+
+        /**
+         * Get the next value of the slice. Continues with the first value after the last one.
+         */
+        public double getNext(){
+            return get(nextIndex());
+        }
+
+        public double getRandomElement(){
+            return get(randomIndex());
+        }
+
+        /**
+         * Get an element of the slice selected by the given distribution
+         */
+        public double getElement(KeyDistribution distribution){
+            return get(indexOf(distribution));
+        }
+
+        public long size(){
+            return length();
+        }
+
+        private double get(long index){
+            return Double.longBitsToDouble(segments.getBits(index));
+        }
+    }
+}
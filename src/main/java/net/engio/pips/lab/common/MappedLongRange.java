@@ -0,0 +1,107 @@
+package net.engio.pips.lab.common;
+
+import java.io.File;
+
+/**
+ * An immutable set of long values stored in a memory-mapped file. The values are generated only once:
+ * opening a range with the same file, size and type again maps the existing file, which makes startup
+ * almost instant and keeps the heap footprint constant regardless of the number of values.
+ * Ranges may exceed 2GB, therefore all indexes are longs.
+ * <p>
+ * The file does not record which generator produced its values. Use distinct file names for distinct data sets.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class MappedLongRange extends PrimitiveRange<MappedLongRange.Cursor> {
+
+    static final int Type = 0;
+
+    private final MappedSegments segments;
+
+    private MappedLongRange(MappedSegments segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Map the values stored in the given file or generate them if the file does not contain
+     * a range of the given size.
+     */
+    public static MappedLongRange open(File file, long size, final LongGenerator generator){
+        return new MappedLongRange(MappedSegments.open(file, Type, size, new MappedSegments.Source() {
+            @Override
+            public long nextBits() {
+                return generator.next();
+            }
+        }));
+    }
+
+    /**
+     * Map the values of an existing file
+     */
+    public static MappedLongRange open(File file){
+        return new MappedLongRange(MappedSegments.open(file, Type));
+    }
+
+    public long getElement(long index){
+        return segments.getBits(index);
+    }
+
+    public long size(){
+        return segments.size();
+    }
+
+    public File getFile(){
+        return segments.getFile();
+    }
+
+    @Override
+    long length(){
+        return segments.size();
+    }
+
+    @Override
+    Cursor createCursor(long from, long to, long seed){
+        return new Cursor(segments, from, to, seed);
+    }
+
+    /**
+     * A view of a range (or a slice of it) with its own position and random source.
+     * A cursor is not thread-safe.
+     */
+    public static final class Cursor extends PrimitiveCursor<Cursor> {
+
+        private final MappedSegments segments;
+
+        private Cursor(MappedSegments segments, long from, long to, long seed) {
+            super(from, to, seed);
+            this.segments = segments;
+        }
+
+        /**
+         * Get the next value of the slice. Continues with the first value after the last one.
+         */
+        public long getNext(){
+            return get(nextIndex());
+        }
+
+        public long getRandomElement(){
+            return get(randomIndex());
+        }
+
+        /**
+         * Get an element of the slice selected by the given distribution
+         */
+        public long getElement(KeyDistribution distribution){
+            return get(indexOf(distribution));
+        }
+
+        public long size(){
+            return length();
+        }
+
+        private long get(long index){
+            return segments.getBits(index);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package net.engio.pips.lab.common;
+
+import net.engio.pips.lab.LabException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Stores 64 bit values in a file and maps them into memory in segments of at most 1GB, such
+ * that data sets larger than a single mapped buffer can be accessed by a long index.
+ * The file starts with a header that identifies the type and number of values. A file with a matching header
+ * is reused as is, otherwise it is generated (into a temporary file which is renamed when complete).
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+final class MappedSegments {
+
+    static final int Magic = 0x4c41424d; // "LABM"
+
+    static final int Version = 1;
+
+    static final int HeaderSize = 64;
+
+    private static final int SegmentShift = 27; // 2^27 values of 8 bytes each
+
+    private static final long SegmentMask = (1L << SegmentShift) - 1;
+
+    private static final int WriteBufferSize = 1 << 20;
+
+    interface Source {
+        long nextBits();
+    }
+
+    private final LongBuffer[] segments;
+
+    private final long size;
+
+    private final File file;
+
+    private MappedSegments(File file, LongBuffer[] segments, long size) {
+        this.file = file;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    long getBits(long index){
+        return segments[(int)(index >>> SegmentShift)].get((int)(index & SegmentMask));
+    }
+
+    long size(){
+        return size;
+    }
+
+    File getFile(){
+        return file;
+    }
+
+    static MappedSegments open(File file, int type, long size, Source source){
+        try {
+            if(!matches(file, type, size))
+                generate(file, type, size, source);
+            return map(file, type);
+        } catch (IOException e) {
+            throw new LabException("Could not create mapped range " + file, e, LabException.ErrorCode.RangeIO);
+        }
+    }
+
+    static MappedSegments open(File file, int type){
+        try {
+            if(!matches(file, type, -1))
+                throw new IOException("Not a mapped range of the requested type");
+            return map(file, type);
+        } catch (IOException e) {
+            throw new LabException("Could not open mapped range " + file, e, LabException.ErrorCode.RangeIO);
+        }
+    }
+
+    // a size of -1 matches any size
+    private static boolean matches(File file, int type, long size) throws IOException {
+        if(!file.isFile() || file.length() < HeaderSize)
+            return false;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer header = readHeader(raf.getChannel());
+            long stored = header.getLong(12);
+            return header.getInt(0) == Magic && header.getInt(4) == Version && header.getInt(8) == type
+                    && (size < 0 || stored == size) && file.length() == HeaderSize + stored * 8;
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HeaderSize);
+        while(header.hasRemaining() && channel.read(header) >= 0);
+        return header.order(ByteOrder.nativeOrder());
+    }
+
+    private static void generate(File file, int type, long size, Source source) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if(parent != null)
+            parent.mkdirs();
+        File tmp = new File(file.getPath() + ".tmp");
+        RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+        try {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WriteBufferSize).order(ByteOrder.nativeOrder());
+            buffer.putInt(Magic).putInt(Version).putInt(type).putLong(size);
+            buffer.position(HeaderSize);
+            for(long i = 0; i < size; i++){
+                if(!buffer.hasRemaining())
+                    write(channel, buffer);
+                buffer.putLong(source.nextBits());
+            }
+            write(channel, buffer);
+            channel.force(false);
+        } finally {
+            raf.close();
+        }
+        if(file.exists() && !file.delete())
+            throw new IOException("Could not replace " + file);
+        if(!tmp.renameTo(file))
+            throw new IOException("Could not rename " + tmp + " to " + file);
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static MappedSegments map(File file, int type) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = readHeader(channel).getLong(12);
+            LongBuffer[] segments = new LongBuffer[(int)((size + SegmentMask) >>> SegmentShift)];
+            for(int i = 0; i < segments.length; i++){
+                long first = (long) i << SegmentShift;
+                long values = Math.min(size - first, 1L << SegmentShift);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HeaderSize + first * 8, values * 8)
+                        .order(ByteOrder.nativeOrder()).asLongBuffer();
+            }
+            // the mapping stays valid after the channel is closed
+            return new MappedSegments(file, segments, size);
+        } finally {
+            raf.close();
+        }
+    }
+}
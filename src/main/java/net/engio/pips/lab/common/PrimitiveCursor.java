@@ -0,0 +1,59 @@
+package net.engio.pips.lab.common;
+
+/**
+ * The position and random source of a cursor over a slice of a range of primitive values. Implementations
+ * only read the values at the indexes computed here, such that no value is boxed. A cursor is not thread-safe.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+abstract class PrimitiveCursor<C extends PrimitiveCursor<C>> {
+
+    private final long from;
+
+    private final long to;
+
+    private final SplitMix64 random;
+
+    private long index;
+
+    PrimitiveCursor(long from, long to, long seed) {
+        this.from = from;
+        this.to = to;
+        this.index = from;
+        this.random = new SplitMix64(seed);
+    }
+
+    // the index of the next value of the slice, continuing with the first value after the last one
+    final long nextIndex(){
+        long current = index;
+        if(++index == to)
+            index = from;
+        return current;
+    }
+
+    final long randomIndex(){
+        long length = to - from;
+        return from + (length <= Integer.MAX_VALUE ? random.nextInt((int) length) : random.nextLong(length));
+    }
+
+    final long indexOf(KeyDistribution distribution){
+        return from + distribution.next(random);
+    }
+
+    final long length(){
+        return to - from;
+    }
+
+    public C startWithRandomIndex(){
+        index = randomIndex();
+        return (C) this;
+    }
+
+    /**
+     * @return The random source of this cursor, e.g. to be used by key distributions
+     */
+    public SplitMix64 getRandom(){
+        return random;
+    }
+}
@@ -0,0 +1,49 @@
+package net.engio.pips.lab.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the cursors of a range of primitive values, either over the whole range or over disjoint slices of it.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+abstract class PrimitiveRange<C extends PrimitiveCursor<C>> {
+
+    abstract long length();
+
+    // a cursor over the values in [from, to)
+    abstract C createCursor(long from, long to, long seed);
+
+    /**
+     * Create a cursor over all values of this range. The cursor must only be used by a single thread.
+     *
+     * @param seed The seed of the cursor's random source
+     */
+    public C cursor(long seed){
+        return createCursor(0, length(), seed);
+    }
+
+    /**
+     * Create a cursor over one of the given number of disjoint, equally sized slices of this range.
+     *
+     * @see Range#slice(int, int, long)
+     */
+    public C slice(int slice, int slices, long seed){
+        long size = length();
+        Slices.check(size, slice, slices);
+        return createCursor(Slices.start(size, slice, slices), Slices.start(size, slice + 1, slices),
+                SplitMix64.seed(seed, slice));
+    }
+
+    /**
+     * Split this range into the given number of disjoint slices, e.g. one for each parallel task of a workload.
+     */
+    public List<C> partition(int slices, long seed){
+        List<C> cursors = new ArrayList<C>(slices);
+        for(int i = 0; i < slices; i++)
+            cursors.add(slice(i, slices, seed));
+        return cursors;
+    }
+}
@@ -1,13 +1,23 @@
 package net.engio.pips.lab.common;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An immutable set of values of type T. Values are pre-generated by a corresponding
  * {@link ValueGenerator} and can be accessed randomly.
  *
+ * The shared accessors ({@link #getNext()}, {@link #getRandomElement()}) are safe to use from many threads
+ * but contend on the shared index and {@link Random}. Tasks that pull a lot of values should use their own
+ * {@link Cursor} instead, see {@link #cursor(long)} and {@link #partition(int, long)}.
+ *
+ * Large ranges can be generated in parallel ({@link #parallel(ValueGeneratorFactory, int)}) or lazily,
+ * chunk by chunk on first access ({@link #lazy(ValueGeneratorFactory, int)}).
  *
  * @author bennidi
  *         Date: 2/13/14
@@ -20,6 +30,9 @@ public class Range<T> {
 
     private AtomicInteger index=new AtomicInteger(0);
 
+    // only set for lazily generated ranges
+    private final LazyChunks chunks;
+
     public Range(ValueGenerator<T> generator, int size){
         super();
         elements = (T[])new Object[size];
@@ -27,21 +40,69 @@ public class Range<T> {
            elements[i] = generator.next();
         }
         random = new Random();
+        chunks = null;
     }
 
-    private Range(T[] elements){
+    private Range(T[] elements, LazyChunks chunks){
         this.elements = elements;
+        this.chunks = chunks;
         random = new Random();
     }
 
+    /**
+     * Generate a range of the given size using all available processors. Each partition of the range
+     * is filled by its own generator.
+     */
+    public static <T> Range<T> parallel(ValueGeneratorFactory<T> factory, int size){
+        int processors = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(processors);
+        try {
+            return parallel(factory, size, executor, processors * 4);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Generate a range of the given size in the given number of partitions, each filled by its own generator
+     * using the given executor.
+     */
+    public static <T> Range<T> parallel(ValueGeneratorFactory<T> factory, int size, ExecutorService executor, int partitions){
+        T[] elements = (T[])new Object[size];
+        LazyChunks.fill(elements, factory, Math.max(1, Math.min(partitions, size)), executor);
+        return new Range<T>(elements, null);
+    }
+
+    /**
+     * Create a range of the given size that generates its values in chunks of {@value LazyChunks#ChunkSize}
+     * when they are first accessed. Each chunk is filled by its own generator. Creating the range is almost free
+     * and concurrent accesses to different chunks fill them in parallel.
+     */
+    public static <T> Range<T> lazy(ValueGeneratorFactory<T> factory, int size){
+        Object[] elements = new Object[size];
+        return new Range<T>((T[])elements, new LazyChunks(elements, factory));
+    }
+
     public Range<T> shuffle(){
-        Range<T> clone = new Range<T>(Arrays.copyOf(elements, elements.length));
-        shuffle(clone.elements);
+        return shuffle(new Random());
+    }
+
+    /**
+     * Get a shuffled copy of this range. Shuffling with the same seed always yields the same order.
+     */
+    public Range<T> shuffle(long seed){
+        return shuffle(new Random(seed));
+    }
+
+    private Range<T> shuffle(Random rnd){
+        if(chunks != null)
+            chunks.fillAll();
+        Range<T> clone = new Range<T>(Arrays.copyOf(elements, elements.length), null);
+        shuffle(clone.elements, rnd);
         return clone;
     }
 
-    private void shuffle(T[] elements){
-        Random rnd = new Random();
+    private void shuffle(T[] elements, Random rnd){
         for (int i = elements.length - 1; i > 0; i--)
         {
             int index = rnd.nextInt(i + 1);
@@ -58,22 +119,22 @@ public class Range<T> {
      * @return
      */
     public Range<T> clone(){
-        return new Range<T>(elements);
+        return new Range<T>(elements, chunks);
     }
 
     public T getRandomElement(){
-        return elements[Math.abs(random.nextInt() % elements.length)];
+        return get(Math.abs(random.nextInt() % elements.length));
     }
 
 
     public T getNext(){
         return index.get() < elements.length -1
-                ? elements[index.getAndIncrement()] // get next element
-                : elements[index.getAndIncrement() % elements.length]; // handle out of bounds access gracefully
+                ? get(index.getAndIncrement()) // get next element
+                : get(index.getAndIncrement() % elements.length); // handle out of bounds access gracefully
     }
 
     public T getElement(int index){
-        return index < elements.length ? elements[index] : null;
+        return index < elements.length ? get(index) : null;
     }
 
     public boolean hasNext(){
@@ -85,4 +146,123 @@ public class Range<T> {
         return this;
     }
 
+    public int size(){
+        return elements.length;
+    }
+
+    private T get(int index){
+        if(chunks != null)
+            chunks.ensure(index);
+        return elements[index];
+    }
+
+    /**
+     * Create a cursor over all elements of this range. The cursor must only be used by a single thread.
+     *
+     * @param seed The seed of the cursor's random source
+     */
+    public Cursor<T> cursor(long seed){
+        return new Cursor<T>(elements, chunks, 0, elements.length, seed);
+    }
+
+    /**
+     * Create a cursor over one of the given number of disjoint, equally sized slices of this range.
+     * The seed of the cursor is derived from the given seed and the number of the slice such that
+     * each slice produces a distinct but reproducible sequence of random elements.
+     *
+     * @param slice The number of the slice, starting with 0
+     * @param slices The total number of slices
+     * @param seed The seed shared by all slices
+     */
+    public Cursor<T> slice(int slice, int slices, long seed){
+        Slices.check(elements.length, slice, slices);
+        int from = (int) Slices.start(elements.length, slice, slices);
+        int to = (int) Slices.start(elements.length, slice + 1, slices);
+        return new Cursor<T>(elements, chunks, from, to, SplitMix64.seed(seed, slice));
+    }
+
+    /**
+     * Split this range into the given number of disjoint slices, e.g. one for each parallel task of a workload.
+     *
+     * @see #slice(int, int, long)
+     */
+    public List<Cursor<T>> partition(int slices, long seed){
+        List<Cursor<T>> cursors = new ArrayList<Cursor<T>>(slices);
+        for(int i = 0; i < slices; i++)
+            cursors.add(slice(i, slices, seed));
+        return cursors;
+    }
+
+    /**
+     * A view of a range (or a slice of it) with its own position and random source. Reading from a cursor
+     * does not write to any shared state, thus cursors of different threads never contend.
+     * A cursor is not thread-safe.
+     */
+    public static final class Cursor<T> {
+
+        private final T[] elements;
+
+        private final LazyChunks chunks;
+
+        private final int from;
+
+        private final int to;
+
+        private final SplitMix64 random;
+
+        private int index;
+
+        private Cursor(T[] elements, LazyChunks chunks, int from, int to, long seed) {
+            this.elements = elements;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.index = from;
+            this.random = new SplitMix64(seed);
+        }
+
+        /**
+         * Get the next element of the slice. Continues with the first element after the last one.
+         */
+        public T getNext(){
+            int current = index;
+            if(++index == to)
+                index = from;
+            return get(current);
+        }
+
+        public T getRandomElement(){
+            return get(from + random.nextInt(to - from));
+        }
+
+        /**
+         * Get an element of the slice selected by the given distribution
+         */
+        public T getElement(KeyDistribution distribution){
+            return get(from + (int) distribution.next(random));
+        }
+
+        public Cursor<T> startWithRandomIndex(){
+            index = from + random.nextInt(to - from);
+            return this;
+        }
+
+        public int size(){
+            return to - from;
+        }
+
+        /**
+         * @return The random source of this cursor, e.g. to be used by key distributions
+         */
+        public SplitMix64 getRandom(){
+            return random;
+        }
+
+        private T get(int index){
+            if(chunks != null)
+                chunks.ensure(index);
+            return elements[index];
+        }
+    }
+
 }
@@ -0,0 +1,24 @@
+package net.engio.pips.lab.common;
+
+/**
+ * Computes the bounds of equally sized, disjoint slices of a range.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+final class Slices {
+
+    private Slices() {}
+
+    static void check(long size, int slice, int slices){
+        if(slices <= 0 || slices > size)
+            throw new IllegalArgumentException("Can not split range of size " + size + " into " + slices + " slices");
+        if(slice < 0 || slice >= slices)
+            throw new IllegalArgumentException("Slice " + slice + " is not within [0," + slices + ")");
+    }
+
+    // the first index of the given slice, which is also the end of the preceding slice
+    static long start(long size, int slice, int slices){
+        return size * slice / slices;
+    }
+}
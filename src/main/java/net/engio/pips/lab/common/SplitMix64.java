@@ -0,0 +1,72 @@
+package net.engio.pips.lab.common;
+
+/**
+ * A small, fast and splittable pseudo random generator (SplitMix64). Unlike {@link java.util.Random}
+ * it is not thread-safe and does not use any atomic operations. It is meant to be owned by a single thread.
+ * Instances split from the same seed always produce the same sequences.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public final class SplitMix64 {
+
+    private static final long Golden = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    public SplitMix64(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state += Golden);
+    }
+
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * @return A value between 0 (inclusive) and bound (exclusive)
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+
+    /**
+     * @return A value between 0 (inclusive) and bound (exclusive)
+     */
+    public long nextLong(long bound) {
+        return (nextLong() >>> 1) % bound;
+    }
+
+    /**
+     * @return A value between 0 (inclusive) and 1 (exclusive)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @return A new generator with a seed derived from this generator
+     */
+    public SplitMix64 split() {
+        return new SplitMix64(nextLong());
+    }
+
+    /**
+     * @return A well distributed 64 bit hash of the given value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return The seed of the n-th generator derived from the given seed
+     */
+    public static long seed(long seed, int n) {
+        return mix(seed + (n + 1) * Golden);
+    }
+}
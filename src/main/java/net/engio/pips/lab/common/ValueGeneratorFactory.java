@@ -0,0 +1,18 @@
+package net.engio.pips.lab.common;
+
+/**
+ * Creates the generators used to fill partitions of a {@link Range} in parallel or on demand.
+ * Generators of different partitions may be used concurrently, so they should not share mutable state.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface ValueGeneratorFactory<T> {
+
+    /**
+     * @param first The index of the first value that the generator will produce. Generators that derive
+     *              their values (or random seeds) from the index produce the same range regardless of
+     *              how it is partitioned.
+     */
+    public ValueGenerator<T> create(int first);
+}
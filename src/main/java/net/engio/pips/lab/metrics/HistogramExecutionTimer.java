@@ -0,0 +1,52 @@
+package net.engio.pips.lab.metrics;
+
+import net.engio.pips.data.DataPoint;
+import net.engio.pips.data.IDataProcessor;
+import net.engio.pips.data.utils.ExecutionTimer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link ExecutionTimer} that records the time between {@code begin()} and {@code end()} with nanosecond
+ * resolution into a {@link LatencyRecorder}. Optionally, each measurement is also passed to a data processor
+ * (in milliseconds, like the original timer), e.g. to chart a sampled time series.
+ * A timer is owned by a single task.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class HistogramExecutionTimer extends ExecutionTimer {
+
+    private final LatencyRecorder recorder;
+
+    private final IDataProcessor<Long, ?> samples;
+
+    private long started;
+
+    /**
+     * @param recorder The recorder of all measured latencies
+     * @param samples  The processor of the measurements in milliseconds or null
+     */
+    public HistogramExecutionTimer(LatencyRecorder recorder, IDataProcessor<Long, ?> samples) {
+        super(samples);
+        this.recorder = recorder;
+        this.samples = samples;
+    }
+
+    @Override
+    public void begin() {
+        started = System.nanoTime();
+    }
+
+    @Override
+    public void end() {
+        long latency = System.nanoTime() - started;
+        recorder.record(latency);
+        if(samples != null)
+            samples.receive(new DataPoint<Long>(TimeUnit.NANOSECONDS.toMillis(latency)));
+    }
+
+    public LatencyRecorder getRecorder() {
+        return recorder;
+    }
+}
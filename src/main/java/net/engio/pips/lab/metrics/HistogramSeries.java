@@ -0,0 +1,47 @@
+package net.engio.pips.lab.metrics;
+
+import net.engio.pips.lab.store.ISeries;
+import net.engio.pips.lab.store.ISeriesConsumer;
+
+/**
+ * Exposes the non-empty buckets of a {@link LatencyHistogram} as a series, such that it can be stored
+ * with the other results of a run. Each datapoint holds the highest latency of a bucket as timestamp
+ * and the number of recorded latencies as value (see {@link Metric#LatencyDistribution}).
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class HistogramSeries implements ISeries {
+
+    private final String id;
+
+    private final LatencyHistogram histogram;
+
+    /**
+     * @param timerId The id the histogram was bound to. The id of the series is suffixed with {@link Metric#HistogramSuffix}
+     */
+    public HistogramSeries(String timerId, LatencyHistogram histogram) {
+        this.id = timerId + Metric.HistogramSuffix;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public long size() {
+        return histogram.getBuckets();
+    }
+
+    @Override
+    public void feed(ISeriesConsumer consumer) {
+        histogram.feed(consumer);
+    }
+
+    @Override
+    public String toString() {
+        return id + ":" + histogram.getCount() + " latencies";
+    }
+}
@@ -0,0 +1,190 @@
+package net.engio.pips.lab.metrics;
+
+import net.engio.pips.lab.store.ISeriesConsumer;
+
+/**
+ * A latency recorder with constant memory footprint. Recorded values are counted in log-linear buckets:
+ * Each power of two is divided into a fixed number of linear sub-buckets, such that any value
+ * can be reported with a bounded relative error (similar to HdrHistogram).
+ * With the default precision of 8 bits the relative error is below 2^-7 (about 0.78%) and a histogram
+ * occupies roughly 60KB, independent of the number of recorded values.
+ * <p>
+ * A histogram is written by a single thread without any synchronization. Histograms of
+ * different threads are combined using {@link #merge(LatencyHistogram)} after recording has finished.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class LatencyHistogram implements LatencyRecorder {
+
+    public static final double[] DefaultPercentiles = new double[]{50, 90, 99, 99.9};
+
+    private final int precision;
+
+    private final int subBuckets;
+
+    private final int halfSubBuckets;
+
+    private final long[] counts;
+
+    private long count = 0;
+
+    private long min = Long.MAX_VALUE;
+
+    private long max = 0;
+
+    private double sum = 0;
+
+    public LatencyHistogram() {
+        this(8);
+    }
+
+    /**
+     * @param precision The number of bits used for the linear sub-buckets (between 2 and 16).
+     *                  The relative error of reported values is below 2^(1-precision).
+     */
+    public LatencyHistogram(int precision) {
+        if(precision < 2 || precision > 16)
+            throw new IllegalArgumentException("Precision must be between 2 and 16 bits:" + precision);
+        this.precision = precision;
+        this.subBuckets = 1 << precision;
+        this.halfSubBuckets = subBuckets >> 1;
+        this.counts = new long[subBuckets + (64 - precision) * halfSubBuckets];
+    }
+
+    @Override
+    public void record(long latencyInNanos) {
+        record(latencyInNanos, 1);
+    }
+
+    /**
+     * Record the given latency as often as specified
+     */
+    public void record(long latencyInNanos, long occurrences) {
+        if(occurrences <= 0)
+            return;
+        long value = latencyInNanos < 0 ? 0 : latencyInNanos;
+        counts[indexOf(value)] += occurrences;
+        count += occurrences;
+        sum += (double)value * occurrences;
+        if(value > max) max = value;
+        if(value < min) min = value;
+    }
+
+    /**
+     * Feed the non-empty buckets in ascending order. The timestamp of each datapoint is the highest value
+     * of the bucket (or the maximum recorded value) and its value the number of values in the bucket.
+     * Recording the datapoints (see {@link #record(long, long)}) reproduces the percentiles of this histogram.
+     */
+    public void feed(ISeriesConsumer consumer){
+        for(int i = 0; i < counts.length; i++)
+            if(counts[i] > 0)
+                consumer.consume(Math.min(max, highestValueOf(i)), counts[i]);
+    }
+
+    /**
+     * @return The number of non-empty buckets
+     */
+    public int getBuckets(){
+        int buckets = 0;
+        for(int i = 0; i < counts.length; i++)
+            if(counts[i] > 0) buckets++;
+        return buckets;
+    }
+
+    private int indexOf(long value){
+        if(value < subBuckets)
+            return (int)value;
+        // the number of bits the value needs to be shifted to fit into the upper half of the sub-buckets
+        int shift = 64 - Long.numberOfLeadingZeros(value) - precision;
+        int subBucket = (int)(value >>> shift);
+        return subBuckets + (shift - 1) * halfSubBuckets + (subBucket - halfSubBuckets);
+    }
+
+    // the highest value that falls into the bucket with the given index
+    private long highestValueOf(int index){
+        if(index < subBuckets)
+            return index;
+        int offset = index - subBuckets;
+        int shift = offset / halfSubBuckets + 1;
+        long subBucket = offset % halfSubBuckets + halfSubBuckets;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Add all values recorded by the given histogram to this histogram. Both
+     * histograms must have the same precision.
+     *
+     * @param other The histogram to merge
+     * @return This histogram
+     */
+    public LatencyHistogram merge(LatencyHistogram other){
+        if(other.precision != precision)
+            throw new IllegalArgumentException("Can not merge histograms of different precision");
+        for(int i = 0; i < counts.length; i++)
+            counts[i] += other.counts[i];
+        count += other.count;
+        sum += other.sum;
+        if(other.max > max) max = other.max;
+        if(other.min < min) min = other.min;
+        return this;
+    }
+
+    public LatencyHistogram copy(){
+        return new LatencyHistogram(precision).merge(this);
+    }
+
+    public void reset(){
+        for(int i = 0; i < counts.length; i++)
+            counts[i] = 0;
+        count = 0;
+        sum = 0;
+        max = 0;
+        min = Long.MAX_VALUE;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    @Override
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    @Override
+    public long getValueAtPercentile(double percentile) {
+        if(count == 0) return 0;
+        long rank = Math.max(1, (long)Math.ceil(Math.min(100d, percentile) / 100d * count));
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++){
+            seen += counts[i];
+            if(seen >= rank)
+                return Math.min(max, highestValueOf(i));
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("count=").append(count);
+        summary.append(",mean=").append((long)getMean());
+        for(double percentile : DefaultPercentiles){
+            summary.append(",p").append(percentile % 1 == 0 ? String.valueOf((int)percentile) : String.valueOf(percentile));
+            summary.append("=").append(getValueAtPercentile(percentile));
+        }
+        summary.append(",max=").append(max);
+        return summary.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package net.engio.pips.lab.metrics;
+
+/**
+ * A latency recorder accumulates latency values (in nanoseconds) of a single execution unit.
+ * Recorders are not expected to be thread-safe since they are written by exactly one task.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface LatencyRecorder {
+
+    void record(long latencyInNanos);
+
+    long getCount();
+
+    long getMax();
+
+    double getMean();
+
+    /**
+     * @param percentile A value between 0 and 100
+     * @return The latency (in nanoseconds) below which the given percentage of recorded values fall
+     */
+    long getValueAtPercentile(double percentile);
+}
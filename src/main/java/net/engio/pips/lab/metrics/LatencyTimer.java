@@ -0,0 +1,36 @@
+package net.engio.pips.lab.metrics;
+
+/**
+ * Measures the time between {@code begin()} and {@code end()} with nanosecond resolution and
+ * records it into a {@link LatencyRecorder}. A timer is owned by a single task.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class LatencyTimer {
+
+    private final LatencyRecorder recorder;
+
+    private long started;
+
+    public LatencyTimer(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public void begin(){
+        started = System.nanoTime();
+    }
+
+    /**
+     * @return The measured latency in nanoseconds
+     */
+    public long end(){
+        long latency = System.nanoTime() - started;
+        recorder.record(latency);
+        return latency;
+    }
+
+    public LatencyRecorder getRecorder() {
+        return recorder;
+    }
+}
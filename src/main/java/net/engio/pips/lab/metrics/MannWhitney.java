@@ -0,0 +1,74 @@
+package net.engio.pips.lab.metrics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The Mann-Whitney U test (Wilcoxon rank-sum test) determines whether two independent samples
+ * stem from the same distribution. It makes no assumption about the shape of the distribution which
+ * makes it suitable for latency data. The p-value is computed from the normal approximation including
+ * a correction for ties and is therefore only accurate for samples of more than ~20 values.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public final class MannWhitney {
+
+    private MannWhitney() {}
+
+    /**
+     * @return The two-sided p-value for the hypothesis that both samples stem from the same distribution
+     */
+    public static double test(double[] first, double[] second){
+        int n1 = first.length, n2 = second.length, n = n1 + n2;
+        if(n1 == 0 || n2 == 0)
+            return 1;
+        // sort all values while remembering which sample they belong to
+        final double[] all = new double[n];
+        Integer[] indices = new Integer[n];
+        for(int i = 0; i < n; i++){
+            all[i] = i < n1 ? first[i] : second[i - n1];
+            indices[i] = i;
+        }
+        Arrays.sort(indices, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(all[a], all[b]);
+            }
+        });
+        // assign (averaged) ranks and accumulate the rank sum of the first sample
+        double rankSum = 0, tieCorrection = 0;
+        int i = 0;
+        while(i < n){
+            int j = i;
+            while(j + 1 < n && all[indices[j + 1]] == all[indices[i]]) j++;
+            double rank = (i + j) / 2d + 1;
+            long ties = j - i + 1;
+            tieCorrection += ties * ties * ties - ties;
+            for(int k = i; k <= j; k++)
+                if(indices[k] < n1) rankSum += rank;
+            i = j + 1;
+        }
+        double u = rankSum - n1 * (n1 + 1d) / 2;
+        double mean = n1 * (double)n2 / 2;
+        double variance = n1 * (double)n2 / 12 * ((n + 1) - tieCorrection / ((double)n * (n - 1)));
+        if(variance <= 0)
+            return 1; // all values are equal
+        double z = Math.abs(u - mean) / Math.sqrt(variance);
+        return Math.min(1, 2 * (1 - normalCdf(z)));
+    }
+
+    // cumulative distribution function of the standard normal distribution
+    static double normalCdf(double z){
+        return 0.5 * (1 + erf(z / Math.sqrt(2)));
+    }
+
+    // Abramowitz and Stegun formula 7.1.26 (maximum error 1.5e-7)
+    private static double erf(double x){
+        double sign = x < 0 ? -1 : 1;
+        x = Math.abs(x);
+        double t = 1 / (1 + 0.3275911 * x);
+        double y = 1 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+        return sign * y;
+    }
+}
@@ -0,0 +1,66 @@
+package net.engio.pips.lab.metrics;
+
+/**
+ * The kind of values of a stored series, which determines how a series is summarized and in which direction
+ * a change is a regression. The metric of a series is derived from the suffix of its id: Series of a
+ * {@link ThroughputMeter} end with {@code :throughput} and {@code :failures}, stored {@link LatencyHistogram}s
+ * end with {@link #HistogramSuffix}. Any other series is considered to contain individual latencies.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public enum Metric {
+
+    /**
+     * Individual latencies, e.g. recorded by an execution timer. Compared by percentile, lower is better.
+     */
+    Latency(false, false),
+
+    /**
+     * The buckets of a {@link LatencyHistogram}: The timestamp of a datapoint is the latency and its value the
+     * number of occurrences (see {@link HistogramSeries}). Compared by percentile, lower is better.
+     */
+    LatencyDistribution(false, false),
+
+    /**
+     * Completed operations per second. Compared by mean, higher is better.
+     */
+    Throughput(true, true),
+
+    /**
+     * Failed operations per second. Compared by mean, lower is better.
+     */
+    Failures(true, false);
+
+    public static final String HistogramSuffix = ":histogram";
+
+    private final boolean rate;
+
+    private final boolean higherIsBetter;
+
+    Metric(boolean rate, boolean higherIsBetter) {
+        this.rate = rate;
+        this.higherIsBetter = higherIsBetter;
+    }
+
+    public static Metric of(String seriesId){
+        if(seriesId.endsWith(":throughput"))
+            return Throughput;
+        if(seriesId.endsWith(":failures"))
+            return Failures;
+        if(seriesId.endsWith(HistogramSuffix))
+            return LatencyDistribution;
+        return Latency;
+    }
+
+    /**
+     * @return True, if the values are rates that are compared by their mean instead of a percentile
+     */
+    public boolean isRate() {
+        return rate;
+    }
+
+    public boolean isHigherBetter() {
+        return higherIsBetter;
+    }
+}
@@ -0,0 +1,57 @@
+package net.engio.pips.lab.metrics;
+
+import net.engio.pips.lab.store.ISeries;
+import net.engio.pips.lab.store.ISeriesConsumer;
+
+import java.util.Arrays;
+
+/**
+ * An in-memory series backed by growing primitive arrays.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class PrimitiveSeries implements ISeries {
+
+    private final String id;
+
+    private long[] timestamps = new long[64];
+
+    private double[] values = new double[64];
+
+    private int size = 0;
+
+    public PrimitiveSeries(String id) {
+        this.id = id;
+    }
+
+    public synchronized void add(long timestamp, double value){
+        if(size == timestamps.length){
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = timestamp;
+        values[size++] = value;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public synchronized long size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void feed(ISeriesConsumer consumer) {
+        for(int i = 0; i < size; i++)
+            consumer.consume(timestamps[i], values[i]);
+    }
+
+    @Override
+    public String toString() {
+        return id + ":" + size + " datapoints";
+    }
+}
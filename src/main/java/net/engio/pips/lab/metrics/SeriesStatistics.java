@@ -0,0 +1,110 @@
+package net.engio.pips.lab.metrics;
+
+import net.engio.pips.lab.store.ISeries;
+import net.engio.pips.lab.store.ISeriesConsumer;
+
+import java.util.Random;
+
+/**
+ * Summarizes one or more series of the same {@link Metric} in a single pass with bounded memory: Value percentiles
+ * are computed from a {@link LatencyHistogram} and a fixed size sample of values is kept for significance tests.
+ * Individual values are sampled randomly, the sample of a {@link Metric#LatencyDistribution} is drawn at evenly
+ * spaced ranks of the recorded distribution. Percentiles assume non-negative values (such as latencies)
+ * and are rounded to integers.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class SeriesStatistics implements ISeriesConsumer {
+
+    public static final int SampleSize = 10000;
+
+    private final Metric metric;
+
+    private final LatencyHistogram values = new LatencyHistogram();
+
+    private final double[] sample = new double[SampleSize];
+
+    // seeded to make comparisons reproducible
+    private final Random random = new Random(SampleSize);
+
+    private long count = 0;
+
+    private double sum = 0;
+
+    public SeriesStatistics(Metric metric) {
+        this.metric = metric;
+    }
+
+    public SeriesStatistics() {
+        this(Metric.Latency);
+    }
+
+    public SeriesStatistics add(ISeries series){
+        series.feed(this);
+        return this;
+    }
+
+    @Override
+    public void consume(long timestamp, double value) {
+        if(metric == Metric.LatencyDistribution){
+            long occurrences = Math.round(value);
+            values.record(timestamp, occurrences);
+            count += occurrences;
+            sum += (double)timestamp * occurrences;
+            return;
+        }
+        count++;
+        sum += value;
+        values.record(Math.round(value));
+        // reservoir sampling
+        if(count <= SampleSize)
+            sample[(int)count - 1] = value;
+        else{
+            long slot = (long)(random.nextDouble() * count);
+            if(slot < SampleSize) sample[(int)slot] = value;
+        }
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double[] getValueSample(){
+        int size = (int)Math.min(count, SampleSize);
+        if(metric == Metric.LatencyDistribution)
+            return getDistributionSample(size);
+        double[] result = new double[size];
+        System.arraycopy(sample, 0, result, 0, size);
+        return result;
+    }
+
+    // the values at the ranks (i + 0.5) * count / size
+    private double[] getDistributionSample(final int size){
+        final double[] result = new double[size];
+        values.feed(new ISeriesConsumer() {
+            private long seen = 0;
+            private int next = 0;
+
+            @Override
+            public void consume(long value, double occurrences) {
+                seen += (long)occurrences;
+                while(next < size && (next + 0.5) * count / size < seen)
+                    result[next++] = value;
+            }
+        });
+        return result;
+    }
+
+    public long getValueAtPercentile(double percentile){
+        return values.getValueAtPercentile(percentile);
+    }
+
+    public double getMean(){
+        return count == 0 ? 0 : sum / count;
+    }
+}
@@ -0,0 +1,65 @@
+package net.engio.pips.lab.metrics;
+
+/**
+ * Detects when a stream of latencies has reached a steady state. Latencies are averaged over
+ * windows of a fixed number of values. The stream is considered steady as soon as the means of the
+ * last windows differ by no more than the given tolerance, i.e. when JIT compilation (interpreter, C1, C2)
+ * has settled and no longer changes the timing of the measured code.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class SteadyStateDetector {
+
+    private final int windowSize;
+
+    private final double tolerance;
+
+    // the means of the most recent windows (ring buffer)
+    private final double[] means;
+
+    private int completedWindows = 0;
+
+    private int inWindow = 0;
+
+    private double windowSum = 0;
+
+    /**
+     * @param windowSize The number of latencies that are averaged
+     * @param windows The number of consecutive windows that need to be within the tolerance
+     * @param tolerance The maximum relative difference between the window means, e.g. 0.05 for 5%
+     */
+    public SteadyStateDetector(int windowSize, int windows, double tolerance) {
+        if(windowSize < 1 || windows < 2 || tolerance <= 0)
+            throw new IllegalArgumentException("Illegal steady state condition:" + windowSize + "," + windows + "," + tolerance);
+        this.windowSize = windowSize;
+        this.tolerance = tolerance;
+        this.means = new double[windows];
+    }
+
+    /**
+     * @param latency The latency of the most recent execution
+     * @return True, if the stream of latencies is steady
+     */
+    public boolean record(long latency){
+        windowSum += latency;
+        if(++inWindow < windowSize)
+            return false;
+        means[completedWindows++ % means.length] = windowSum / windowSize;
+        inWindow = 0;
+        windowSum = 0;
+        return isSteady();
+    }
+
+    public boolean isSteady(){
+        if(completedWindows < means.length)
+            return false;
+        double min = Double.MAX_VALUE, max = 0, sum = 0;
+        for(double mean : means){
+            min = Math.min(min, mean);
+            max = Math.max(max, mean);
+            sum += mean;
+        }
+        return (max - min) <= tolerance * (sum / means.length);
+    }
+}
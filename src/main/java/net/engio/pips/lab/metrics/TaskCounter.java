@@ -0,0 +1,49 @@
+package net.engio.pips.lab.metrics;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Counts the completed and failed invocations of a single task. The counters are written only by the thread
+ * running the task (using ordered stores instead of a CAS) and read by samplers and reporters.
+ * Padding keeps the counters of different tasks on separate cache lines.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public final class TaskCounter {
+
+    private static final AtomicLongFieldUpdater<TaskCounter> Completed =
+            AtomicLongFieldUpdater.newUpdater(TaskCounter.class, "completed");
+
+    private static final AtomicLongFieldUpdater<TaskCounter> Failed =
+            AtomicLongFieldUpdater.newUpdater(TaskCounter.class, "failed");
+
+    private long p1, p2, p3, p4, p5, p6, p7;
+    private volatile long completed;
+    private volatile long failed;
+    private long q1, q2, q3, q4, q5, q6, q7;
+
+    public void completed() {
+        Completed.lazySet(this, completed + 1);
+    }
+
+    public void completed(int invocations) {
+        Completed.lazySet(this, completed + invocations);
+    }
+
+    public void failed() {
+        Failed.lazySet(this, failed + 1);
+    }
+
+    public void failed(int invocations) {
+        Failed.lazySet(this, failed + invocations);
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+}
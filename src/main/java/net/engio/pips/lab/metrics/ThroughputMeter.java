@@ -0,0 +1,166 @@
+package net.engio.pips.lab.metrics;
+
+import net.engio.pips.lab.store.ISeries;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Aggregates the {@link TaskCounter}s of all tasks of a workload. Counters are only read when the meter is
+ * sampled, such that counting does not cause any contention between tasks. Each sample adds the number of completed
+ * and failed invocations per second since the previous sample to the corresponding series.
+ * <p>
+ * A meter may have child meters for individual operations (see {@link #getMeter(String)}), which are sampled
+ * together with their parent. The meter of a workload is bound to the workload's context using {@link #Key}.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class ThroughputMeter {
+
+    public static final String Key = "Throughput meter";
+
+    private final String id;
+
+    private final Map<String, ThroughputMeter> operations = new LinkedHashMap<String, ThroughputMeter>();
+
+    private final List<TaskCounter> counters = new CopyOnWriteArrayList<TaskCounter>();
+
+    private final PrimitiveSeries throughput;
+
+    private final PrimitiveSeries failures;
+
+    private long lastCompleted = 0;
+
+    private long lastFailed = 0;
+
+    private long lastSample = -1;
+
+    // the first and latest sample in nanoseconds, for the mean throughput over all samples
+    private long firstSampleNanos, lastSampleNanos;
+
+    private long firstCompleted = 0;
+
+    // the rates of the latest sample, readable without locking by monitoring threads
+    private volatile double currentThroughput = 0;
+
+    private volatile double currentFailures = 0;
+
+    /**
+     * @param id The prefix of the series ids, e.g. the name of the workload
+     */
+    public ThroughputMeter(String id) {
+        this.id = id;
+        this.throughput = new PrimitiveSeries(id + ":throughput");
+        this.failures = new PrimitiveSeries(id + ":failures");
+    }
+
+    public TaskCounter createCounter(){
+        TaskCounter counter = new TaskCounter();
+        counters.add(counter);
+        return counter;
+    }
+
+    /**
+     * Get or create the meter of the given operation. Its series ids are prefixed with the id of this meter.
+     */
+    public synchronized ThroughputMeter getMeter(String operation){
+        ThroughputMeter meter = operations.get(operation);
+        if(meter == null){
+            meter = new ThroughputMeter(id + ":" + operation);
+            if(lastSample >= 0) // start where the parent is
+                meter.sample();
+            operations.put(operation, meter);
+        }
+        return meter;
+    }
+
+    public synchronized Collection<String> getOperations(){
+        return new ArrayList<String>(operations.keySet());
+    }
+
+    /**
+     * Add the current throughput to the series. The first sample only marks the beginning of the measurement.
+     */
+    public synchronized void sample(){
+        long now = System.currentTimeMillis();
+        long nanos = System.nanoTime();
+        long completed = getCompleted(), failed = getFailed();
+        if(lastSample < 0){
+            firstSampleNanos = nanos;
+            firstCompleted = completed;
+        }
+        lastSampleNanos = nanos;
+        if(lastSample >= 0){
+            double elapsed = Math.max(1, now - lastSample);
+            currentThroughput = (completed - lastCompleted) * 1000d / elapsed;
+            currentFailures = (failed - lastFailed) * 1000d / elapsed;
+            throughput.add(now, currentThroughput);
+            failures.add(now, currentFailures);
+        }
+        lastSample = now;
+        lastCompleted = completed;
+        lastFailed = failed;
+        for(ThroughputMeter operation : operations.values())
+            operation.sample();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getCompleted(){
+        long completed = 0;
+        for(TaskCounter counter : counters)
+            completed += counter.getCompleted();
+        return completed;
+    }
+
+    public long getFailed(){
+        long failed = 0;
+        for(TaskCounter counter : counters)
+            failed += counter.getFailed();
+        return failed;
+    }
+
+    /**
+     * @return The completed invocations per second between the first and the latest sample, i.e. over the
+     * measurement of a workload
+     */
+    public synchronized double getMeanThroughput() {
+        long elapsed = lastSampleNanos - firstSampleNanos;
+        return elapsed <= 0 ? 0 : (lastCompleted - firstCompleted) * 1000000000d / elapsed;
+    }
+
+    /**
+     * @return The completed invocations per second as of the latest sample
+     */
+    public double getCurrentThroughput() {
+        return currentThroughput;
+    }
+
+    /**
+     * @return The failed invocations per second as of the latest sample
+     */
+    public double getCurrentFailures() {
+        return currentFailures;
+    }
+
+    /**
+     * @return The completed invocations per second
+     */
+    public ISeries getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * @return The failed invocations per second
+     */
+    public ISeries getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,147 @@
+package net.engio.pips.lab.store;
+
+import net.engio.pips.data.IDataCollector;
+import net.engio.pips.lab.Benchmark;
+import net.engio.pips.reports.BinaryFileExporter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.util.*;
+
+/**
+ * The results of a single run of a benchmark. A run is either loaded from its directory ({@code basePath/title/<timestamp>})
+ * or created from a benchmark that has just been executed. The series of a run comprise the streamed results
+ * ({@link ResultStore}) as well as the collectors of the benchmark (exported with the {@link BinaryFileExporter}).
+ * Both include the throughput meters and latency histograms of the run (see {@link net.engio.pips.lab.Executions#getSeries()}).
+ * A run must be closed to release the files of its stores.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class BenchmarkRun implements Closeable {
+
+    private final String name;
+
+    private final long timestamp;
+
+    private final Map<String, List<ISeries>> series = new TreeMap<String, List<ISeries>>();
+
+    private final List<ResultStore> stores = new ArrayList<ResultStore>();
+
+    private BenchmarkRun(String name, long timestamp) {
+        this.name = name;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Load a stored run from the given run directory
+     */
+    public static BenchmarkRun load(File directory){
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(directory.getName());
+        } catch (NumberFormatException e) {
+            timestamp = directory.lastModified();
+        }
+        BenchmarkRun run = new BenchmarkRun(directory.getAbsolutePath(), timestamp);
+        for(String fileName : new String[]{ResultStore.FileName, BinaryFileExporter.FileName}){
+            if(new File(directory, fileName).exists()){
+                ResultStore store = ResultStore.open(directory, fileName);
+                run.stores.add(store);
+                for(String id : store.getSeriesIds())
+                    run.add(store.getSeries(id));
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Create a run from the results of the given (executed) benchmark
+     */
+    public static BenchmarkRun of(Benchmark benchmark){
+        BenchmarkRun run = new BenchmarkRun(benchmark.getReportBaseDir(), System.currentTimeMillis());
+        if(benchmark.isStreamingResults()){
+            ResultStore store = benchmark.getResultStore();
+            run.stores.add(store);
+            for(String id : store.getSeriesIds())
+                run.add(store.getSeries(id));
+        }
+        else if(benchmark.getExecutions() != null) // a streaming run has stored them in its result store
+            run.add(benchmark.getExecutions().getSeries());
+        for(IDataCollector collector : benchmark.getCollectors())
+            run.add(Collections.<ISeries>singletonList(new CollectorSeries(collector)));
+        return run;
+    }
+
+    /**
+     * List all stored runs of the benchmark with the given title, ordered from oldest to newest
+     */
+    public static List<File> list(String basePath, String title){
+        File[] runs = new File(basePath, title).listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isDirectory() && file.getName().matches("\\d+");
+            }
+        });
+        if(runs == null)
+            return Collections.emptyList();
+        List<File> sorted = new ArrayList<File>(Arrays.asList(runs));
+        Collections.sort(sorted, new Comparator<File>() {
+            @Override
+            public int compare(File first, File second) {
+                return Long.valueOf(first.getName()).compareTo(Long.valueOf(second.getName()));
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * Release the file mappings of the stores of this run
+     */
+    @Override
+    public void close(){
+        for(ResultStore store : stores)
+            store.close();
+    }
+
+    private void add(List<ISeries> sources){
+        for(ISeries source : sources){
+            List<ISeries> existing = series.get(source.getId());
+            if(existing == null){
+                existing = new ArrayList<ISeries>();
+                series.put(source.getId(), existing);
+            }
+            existing.add(source);
+        }
+    }
+
+    public Set<String> getSeriesIds(){
+        return Collections.unmodifiableSet(series.keySet());
+    }
+
+    /**
+     * @return All series (one per source) with the given id
+     */
+    public List<ISeries> getSeries(String id){
+        List<ISeries> sources = series.get(id);
+        return sources == null ? Collections.<ISeries>emptyList() : Collections.unmodifiableList(sources);
+    }
+
+    public boolean isEmpty(){
+        return series.isEmpty();
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "Run " + name + " with " + series.size() + " series";
+    }
+}
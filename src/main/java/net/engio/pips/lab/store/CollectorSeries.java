@@ -0,0 +1,45 @@
+package net.engio.pips.lab.store;
+
+import net.engio.pips.data.DataPoint;
+import net.engio.pips.data.DataProcessor;
+import net.engio.pips.data.IDataCollector;
+
+/**
+ * Exposes an in-memory data collector as a series
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class CollectorSeries implements ISeries {
+
+    private final IDataCollector collector;
+
+    public CollectorSeries(IDataCollector collector) {
+        this.collector = collector;
+    }
+
+    @Override
+    public String getId() {
+        return collector.getId();
+    }
+
+    @Override
+    public long size() {
+        return collector.size();
+    }
+
+    @Override
+    public void feed(final ISeriesConsumer consumer) {
+        collector.feed(new DataProcessor<Number, Number>() {
+            @Override
+            public void receive(DataPoint<Number> datapoint) {
+                consumer.consume(datapoint.getTsCreated(), datapoint.getValue().doubleValue());
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return collector.getId() + ":" + collector.size() + " datapoints";
+    }
+}
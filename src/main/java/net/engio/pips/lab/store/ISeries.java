@@ -0,0 +1,20 @@
+package net.engio.pips.lab.store;
+
+/**
+ * A series of (timestamp, value) pairs that can be read sequentially. Series might be backed
+ * by persistent storage and are therefore not required to fit into memory.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface ISeries {
+
+    String getId();
+
+    long size();
+
+    /**
+     * Pass all values of this series to the given consumer, in the order they were recorded.
+     */
+    void feed(ISeriesConsumer consumer);
+}
@@ -0,0 +1,12 @@
+package net.engio.pips.lab.store;
+
+/**
+ * Receives the values of an {@link ISeries}
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface ISeriesConsumer {
+
+    void consume(long timestamp, double value);
+}
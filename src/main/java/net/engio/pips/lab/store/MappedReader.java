@@ -0,0 +1,62 @@
+package net.engio.pips.lab.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a file of arbitrary size through a sliding, memory-mapped window. Data is accessed directly
+ * in the page cache and never copied onto the heap. Regions requested by the caller are expected to be much smaller
+ * than the window (e.g. single blocks of a {@link ResultStore}).
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+class MappedReader {
+
+    // the maximum size of the mapped window
+    private static final long WindowSize = 256 * 1024 * 1024;
+
+    private final RandomAccessFile file;
+
+    private final FileChannel channel;
+
+    private final long length;
+
+    private MappedByteBuffer window;
+
+    private long windowStart = -1;
+
+    MappedReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.length = channel.size();
+    }
+
+    long length() {
+        return length;
+    }
+
+    /**
+     * Get a buffer that contains the requested region starting at the returned buffer position.
+     * The buffer is only valid until the next call.
+     */
+    ByteBuffer map(long position, int size) throws IOException {
+        if(position + size > length)
+            throw new IOException("Region exceeds file:" + position + "+" + size + ">" + length);
+        if(window == null || position < windowStart || position + size > windowStart + window.capacity()){
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(WindowSize, size), length - position));
+        }
+        window.position((int)(position - windowStart));
+        return window;
+    }
+
+    void close() throws IOException {
+        window = null;
+        file.close();
+    }
+}
@@ -0,0 +1,353 @@
+package net.engio.pips.lab.store;
+
+import net.engio.pips.lab.LabException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A file backed store for the datapoints of a benchmark run. Collectors created by the store
+ * ({@link #createCollector(String)}) spill their datapoints in blocks into a single append-only file while
+ * the benchmark is running. Each block holds the datapoints of one collector.
+ * Only a small index of block positions is kept in memory and stored series are read back lazily
+ * from a memory mapped file, such that multi-GB results can be processed without loading them onto the heap.
+ * <p>
+ * A store of a previous run can be reopened using {@link #open(File)}.
+ * <p>
+ * File format (big endian): A header consisting of a magic number and the format version,
+ * followed by any number of blocks. Files with an unknown version are rejected. A truncated last block, e.g. of a run
+ * that crashed while spilling, is ignored. Each block is stored in columnar layout:
+ * <pre>
+ * short  length of id (unsigned)
+ * byte[] id (UTF-8)
+ * int    source
+ * int    count
+ * long[] timestamps (count)
+ * double[] values (count)
+ * </pre>
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class ResultStore {
+
+    public static final String FileName = "results.bin";
+
+    // the maximum number of datapoints per block
+    public static final int BlockSize = 1024;
+
+    private static final int Magic = 0x4C414252; // LABR
+
+    private static final int Version = 1;
+
+    private static final int HeaderSize = 8;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+
+    private FileChannel output;
+
+    private long position = HeaderSize;
+
+    private ByteBuffer block;
+
+    private MappedReader input;
+
+    private final AtomicInteger sources = new AtomicInteger(0);
+
+    private final List<SpillingCollector> collectors = new CopyOnWriteArrayList<SpillingCollector>();
+
+    // series id -> source -> block
+    private final Map<String, Map<Integer, StoredSeries>> index = new TreeMap<String, Map<Integer, StoredSeries>>();
+
+    /**
+     * Create a new store in the given directory
+     */
+    public ResultStore(File directory) {
+        this(directory, FileName);
+    }
+
+    /**
+     * Create a new store with the given file name in the given directory
+     */
+    public ResultStore(File directory, String fileName) {
+        this(new File(directory, fileName), createFile(new File(directory, fileName)));
+    }
+
+    private ResultStore(File file, FileChannel output) {
+        this.file = file;
+        this.output = output;
+        this.block = output != null ? ByteBuffer.allocateDirect(blockSize(64, BlockSize)) : null;
+    }
+
+    // the number of bytes of a block with the given id length and number of datapoints
+    private static int blockSize(int idLength, int count){
+        return 2 + idLength + 8 + count * 16;
+    }
+
+    private static FileChannel createFile(File file){
+        file.getParentFile().mkdirs();
+        try {
+            FileChannel output = new RandomAccessFile(file, "rw").getChannel();
+            output.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HeaderSize);
+            header.putInt(Magic).putInt(Version).flip();
+            while(header.hasRemaining())
+                output.write(header, header.position());
+            return output;
+        } catch (IOException e) {
+            throw new LabException("Could not create result store " + file, e, LabException.ErrorCode.ResultStoreIO);
+        }
+    }
+
+    /**
+     * Open the store of a previous run for reading. The block index is rebuilt by scanning the file.
+     *
+     * @param directory The directory containing the store file
+     */
+    public static ResultStore open(File directory) {
+        return open(directory, FileName);
+    }
+
+    public static ResultStore open(File directory, String fileName) {
+        ResultStore store = new ResultStore(new File(directory, fileName), (FileChannel) null);
+        store.scan();
+        return store;
+    }
+
+    /**
+     * Create a new collector that spills into this store. Each collector is a distinct source,
+     * even if multiple collectors share the same id.
+     */
+    public <N extends Number> SpillingCollector<N> createCollector(String id){
+        SpillingCollector<N> collector = new SpillingCollector<N>(this, id, sources.incrementAndGet());
+        collectors.add(collector);
+        return collector;
+    }
+
+    /**
+     * Store the datapoints of the given series as a new source with the id of the series
+     */
+    public void store(ISeries series){
+        final SpillingCollector collector = createCollector(series.getId());
+        series.feed(new ISeriesConsumer() {
+            @Override
+            public void consume(long timestamp, double value) {
+                collector.add(timestamp, value);
+            }
+        });
+        collector.flush();
+    }
+
+    synchronized void append(String id, int source, long[] timestamps, double[] values, int count) {
+        if(output == null)
+            throw new IllegalStateException("Result store is read only or closed:" + file);
+        try {
+            byte[] encodedId = id.getBytes(UTF8);
+            if(encodedId.length > 0xFFFF)
+                throw new IllegalArgumentException("Id of series exceeds 65535 bytes: " + id.substring(0, 64) + "...");
+            int size = blockSize(encodedId.length, count);
+            if(block.capacity() < size)
+                block = ByteBuffer.allocateDirect(size);
+            block.clear();
+            block.putShort((short) encodedId.length).put(encodedId).putInt(source).putInt(count);
+            for(int i = 0; i < count; i++)
+                block.putLong(timestamps[i]);
+            for(int i = 0; i < count; i++)
+                block.putDouble(values[i]);
+            block.flip();
+            closeInput(); // a mapped reader would not see the new block
+            long blockPosition = position;
+            while(block.hasRemaining())
+                position += output.write(block, position);
+            getOrCreate(id, source).addBlock(blockPosition, count);
+        } catch (IOException e) {
+            throw new LabException("Could not append to result store " + file, e, LabException.ErrorCode.ResultStoreIO);
+        }
+    }
+
+    private StoredSeries getOrCreate(String id, int source){
+        Map<Integer, StoredSeries> sourceSeries = index.get(id);
+        if(sourceSeries == null){
+            sourceSeries = new TreeMap<Integer, StoredSeries>();
+            index.put(id, sourceSeries);
+        }
+        StoredSeries series = sourceSeries.get(source);
+        if(series == null){
+            series = new StoredSeries(id);
+            sourceSeries.put(source, series);
+        }
+        return series;
+    }
+
+    private void scan(){
+        try {
+            MappedReader reader = getInput();
+            if(reader.length() < HeaderSize)
+                throw new IOException("Not a result store");
+            ByteBuffer header = reader.map(0, HeaderSize);
+            if(header.getInt() != Magic)
+                throw new IOException("Not a result store");
+            int version = header.getInt();
+            if(version != Version)
+                throw new IOException("Unsupported version of result store: " + version);
+            long position = HeaderSize;
+            long length = reader.length();
+            // a block that exceeds the file is the incomplete last block of an interrupted run
+            while(position + 2 <= length){
+                ByteBuffer buffer = reader.map(position, 2);
+                int idLength = buffer.getShort() & 0xFFFF;
+                if(position + blockSize(idLength, 0) > length)
+                    break;
+                buffer = reader.map(position + 2, idLength + 8);
+                byte[] encodedId = new byte[idLength];
+                buffer.get(encodedId);
+                int source = buffer.getInt();
+                int count = buffer.getInt();
+                long size = blockSize(idLength, 0) + count * 16L;
+                if(count < 0 || position + size > length)
+                    break;
+                getOrCreate(new String(encodedId, UTF8), source).addBlock(position, count);
+                position += size;
+            }
+        } catch (IOException e) {
+            try {
+                closeInput();
+            } catch (IOException ignored) {
+                // the scan failure is reported
+            }
+            throw new LabException("Could not read result store " + file, e, LabException.ErrorCode.ResultStoreIO);
+        }
+    }
+
+    private synchronized MappedReader getInput() throws IOException {
+        if(input == null)
+            input = new MappedReader(file);
+        return input;
+    }
+
+    private synchronized void closeInput() throws IOException {
+        if(input != null){
+            input.close();
+            input = null;
+        }
+    }
+
+    /**
+     * Append the buffered datapoints of all collectors. Must not be called while collectors are still written to.
+     */
+    public void flush(){
+        for(SpillingCollector collector : collectors)
+            collector.flush();
+    }
+
+    /**
+     * Flush all collectors, close the store for writing and release its file mapping. Read-only stores
+     * only release their mapping. Stored series remain readable, the file is mapped again on the next access.
+     */
+    public synchronized void close(){
+        flush();
+        try {
+            if(output != null){
+                output.force(false);
+                output.close();
+            }
+            closeInput();
+        } catch (IOException e) {
+            throw new LabException("Could not close result store " + file, e, LabException.ErrorCode.ResultStoreIO);
+        } finally {
+            output = null;
+        }
+    }
+
+    public synchronized Set<String> getSeriesIds(){
+        return new TreeSet<String>(index.keySet());
+    }
+
+    /**
+     * Get all series (one per source collector) stored with the given id
+     */
+    public synchronized List<ISeries> getSeries(String id){
+        Map<Integer, StoredSeries> sourceSeries = index.get(id);
+        return sourceSeries == null
+                ? Collections.<ISeries>emptyList()
+                : new ArrayList<ISeries>(sourceSeries.values());
+    }
+
+    /**
+     * Get all series with an id that starts with the given prefix
+     */
+    public synchronized List<ISeries> getMatching(String prefix){
+        List<ISeries> matching = new ArrayList<ISeries>();
+        for(Map.Entry<String, Map<Integer, StoredSeries>> entry : index.entrySet())
+            if(entry.getKey().startsWith(prefix))matching.addAll(entry.getValue().values());
+        return matching;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    // the blocks of a single source
+    private class StoredSeries implements ISeries{
+
+        private final String id;
+
+        private final int headerSize;
+
+        private final List<long[]> blocks = new ArrayList<long[]>(); // position and count of each block
+
+        private long size = 0;
+
+        private StoredSeries(String id) {
+            this.id = id;
+            this.headerSize = blockSize(id.getBytes(UTF8).length, 0);
+        }
+
+        private void addBlock(long position, int count){
+            blocks.add(new long[]{position, count});
+            size += count;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public void feed(ISeriesConsumer consumer) {
+            try {
+                // the reader is shared by all series -> series of the same store are read one at a time
+                synchronized (ResultStore.this){
+                    MappedReader reader = getInput();
+                    for(long[] block : blocks){
+                        int count = (int)block[1];
+                        ByteBuffer buffer = reader.map(block[0] + headerSize, count * 16);
+                        int timestamps = buffer.position();
+                        int values = timestamps + count * 8;
+                        for(int i = 0; i < count; i++)
+                            consumer.consume(buffer.getLong(timestamps + i * 8), buffer.getDouble(values + i * 8));
+                    }
+                }
+            } catch (IOException e) {
+                throw new LabException("Could not read series " + id + " from " + file, e, LabException.ErrorCode.ResultStoreIO);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return id + ":" + size + " datapoints";
+        }
+    }
+}
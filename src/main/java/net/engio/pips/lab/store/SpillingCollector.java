@@ -0,0 +1,93 @@
+package net.engio.pips.lab.store;
+
+import net.engio.pips.data.DataPoint;
+import net.engio.pips.data.DataProcessor;
+
+/**
+ * A collector that buffers a fixed number of datapoints in primitive arrays and appends them to
+ * a {@link ResultStore} whenever the buffer is full. The heap used by a collector is therefore
+ * bounded, no matter how long the benchmark runs. A collector is written by a single task only.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class SpillingCollector<N extends Number> extends DataProcessor<N, N> {
+
+    private final ResultStore store;
+
+    private final String id;
+
+    private final int source;
+
+    private final long[] timestamps = new long[ResultStore.BlockSize];
+
+    private final double[] values = new double[ResultStore.BlockSize];
+
+    private int buffered = 0;
+
+    private long size = 0;
+
+    // receives the datapoints while the task warms up
+    private SpillingCollector<N> warmup;
+
+    SpillingCollector(ResultStore store, String id, int source) {
+        this.store = store;
+        this.id = id;
+        this.source = source;
+    }
+
+    @Override
+    public void receive(DataPoint<N> datapoint) {
+        if(warmup != null){
+            warmup.receive(datapoint);
+            return;
+        }
+        add(datapoint.getTsCreated(), datapoint.getValue().doubleValue());
+        emit(datapoint);
+    }
+
+    public void add(long timestamp, double value){
+        if(warmup != null){
+            warmup.add(timestamp, value);
+            return;
+        }
+        timestamps[buffered] = timestamp;
+        values[buffered] = value;
+        size++;
+        if(++buffered == ResultStore.BlockSize)
+            flush();
+    }
+
+    /**
+     * Redirect all datapoints to the given collector, e.g. during the warmup of the task
+     * (see {@link net.engio.pips.lab.ExecutionContext#isWarmup()}). Passing null flushes the
+     * warmup collector and ends the redirection.
+     */
+    public void setWarmup(SpillingCollector<N> warmup) {
+        if(warmup == null && this.warmup != null)
+            this.warmup.flush();
+        this.warmup = warmup;
+    }
+
+    /**
+     * Append all buffered values to the store
+     */
+    public void flush(){
+        if(buffered == 0) return;
+        store.append(id, source, timestamps, values, buffered);
+        buffered = 0;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return id + "[" + source + "]:" + size + " datapoints";
+    }
+}
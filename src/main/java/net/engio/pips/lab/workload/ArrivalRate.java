@@ -0,0 +1,90 @@
+package net.engio.pips.lab.workload;
+
+import java.util.Random;
+
+/**
+ * An arrival rate turns a workload into an open-loop workload: Operations are issued
+ * according to a target schedule (operations per second) instead of back to back. The latency
+ * of each operation is measured from its intended start time such that queueing delays caused by
+ * a slow system under test are not hidden (coordinated omission).
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class ArrivalRate {
+
+    public static enum Distribution{
+        Constant, Poisson
+    }
+
+    private double opsPerSecond;
+
+    private Distribution distribution;
+
+    public ArrivalRate(double opsPerSecond, Distribution distribution) {
+        if(opsPerSecond <= 0 || distribution == null)
+            throw new IllegalArgumentException("Illegal arrival rate:" + opsPerSecond + distribution);
+        this.opsPerSecond = opsPerSecond;
+        this.distribution = distribution;
+    }
+
+    public double getOpsPerSecond() {
+        return opsPerSecond;
+    }
+
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    /**
+     * Create the schedule for a single parallel unit. The target rate is evenly divided among all parallel
+     * units of the workload and the arrivals of the units are staggered, such that a constant rate results
+     * in evenly spaced arrivals of the workload instead of bursts of one arrival per unit.
+     *
+     * @param parallelUnits The number of units that share the arrival rate
+     * @param unit          The index of the unit (starting at 0)
+     * @param start         The start of the schedules of all units (as in {@link System#nanoTime()}). A unit that
+     *                      joins later, e.g. because its warmup took longer, skips the arrivals that have passed.
+     */
+    public Schedule createSchedule(int parallelUnits, int unit, long start){
+        double interval = 1000000000d * parallelUnits / opsPerSecond;
+        return new Schedule(start, interval, interval * unit / parallelUnits);
+    }
+
+    @Override
+    public String toString() {
+        return distribution + " arrivals at " + opsPerSecond + " ops/s";
+    }
+
+    /**
+     * Computes the intended start times of consecutive operations. A schedule is not thread-safe
+     * and must be used by a single parallel unit only.
+     */
+    public class Schedule{
+
+        private final long start;
+
+        private final double meanInterval;
+
+        private final Random random = new Random();
+
+        private double offset;
+
+        private Schedule(long start, double meanInterval, double offset) {
+            this.start = start;
+            this.meanInterval = meanInterval;
+            long behind = System.nanoTime() - start - (long) offset;
+            this.offset = behind > 0 ? offset + Math.ceil(behind / meanInterval) * meanInterval : offset;
+        }
+
+        /**
+         * @return The intended start time of the next operation (as in {@link System#nanoTime()})
+         */
+        public long next(){
+            offset += distribution == Distribution.Poisson
+                    ? -Math.log(1d - random.nextDouble()) * meanInterval // exponential inter-arrival time
+                    : meanInterval;
+            return start + (long)offset;
+        }
+    }
+}
@@ -8,5 +8,5 @@ package net.engio.pips.lab.workload;
  */
 public enum ExecutionEvent {
 
-    WorkloadInitialization,WorkloadCompletion,TaskInitialization,TaskCompletion
+    WorkloadInitialization,WarmupCompletion,WorkloadCompletion,TaskInitialization,TaskCompletion
 }
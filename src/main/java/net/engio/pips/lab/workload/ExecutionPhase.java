@@ -0,0 +1,15 @@
+package net.engio.pips.lab.workload;
+
+/**
+ * The phase a task is executed in. Each task context binds its current phase
+ * using {@link #Key}.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public enum ExecutionPhase {
+
+    Warmup, Measurement;
+
+    public static final String Key = "Execution phase";
+}
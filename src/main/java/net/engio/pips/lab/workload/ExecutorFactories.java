@@ -0,0 +1,90 @@
+package net.engio.pips.lab.workload;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The available strategies to run the tasks of a workload.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public final class ExecutorFactories {
+
+    private ExecutorFactories() {}
+
+    private static final boolean VirtualThreadsSupported = probeVirtualThreads();
+
+    /**
+     * Runs each parallel unit in its own platform thread of a fixed size thread pool.
+     */
+    public static final IExecutorFactory ThreadPool = new IExecutorFactory() {
+        @Override
+        public ExecutorService create(final Workload workload) {
+            return Executors.newFixedThreadPool(workload.getParallelUnits(), new ThreadFactory() {
+
+                private ThreadGroup group = new ThreadGroup(workload.getName());
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(group, runnable, workload.getName());
+                    thread.setPriority(Thread.NORM_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            return "thread pool";
+        }
+    };
+
+    /**
+     * Runs each parallel unit in its own virtual thread. Virtual threads are cheap to create and
+     * park when blocked on I/O, which allows to simulate tens of thousands of concurrent clients.
+     * Falls back to the {@link #ThreadPool} if the runtime does not support virtual threads.
+     */
+    public static final IExecutorFactory VirtualThreads = new IExecutorFactory() {
+        @Override
+        public ExecutorService create(Workload workload) {
+            ExecutorService executor = createVirtualThreadExecutor(workload.getName());
+            return executor != null ? executor : ThreadPool.create(workload);
+        }
+
+        @Override
+        public String toString() {
+            return isVirtualThreadsSupported() ? "virtual threads" : "thread pool (virtual threads not supported)";
+        }
+    };
+
+    public static boolean isVirtualThreadsSupported(){
+        return VirtualThreadsSupported;
+    }
+
+    // probed once, the probe executor has not run any task and is shut down right away
+    private static boolean probeVirtualThreads(){
+        ExecutorService probe = createVirtualThreadExecutor("probe");
+        if(probe == null)
+            return false;
+        probe.shutdown();
+        return true;
+    }
+
+    // virtual threads are only available on Java 21+ and therefore need to be created reflectively:
+    // Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name, 1).factory())
+    private static ExecutorService createVirtualThreadExecutor(String name){
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+        } catch (Exception e) {
+            // not supported by this runtime (or preview features are disabled)
+            return null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package net.engio.pips.lab.workload;
+
+import net.engio.pips.lab.ExecutionContext;
+
+/**
+ * A task that runs many operations per invocation. Use it for operations that take only a few nanoseconds,
+ * where the overhead of invoking, timing and counting each single operation would dominate the measurement.
+ * The number of operations per invocation is configured with {@link Workload#setBatchSize(int)}.
+ * <p>
+ * The laboratory times each batch and records the average latency per operation (elapsed time divided by
+ * the batch size) into the histogram bound as {@link Workload#getLatencyId()}.
+ * Throughput is counted in operations, not in batches.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface IBatchTask extends ITask {
+
+    /**
+     * Run the given number of operations. The loop over the operations should be part of the
+     * implementation such that the operations are not separated by any harness code.
+     */
+    public void run(final ExecutionContext context, int operations) throws Exception;
+}
@@ -0,0 +1,17 @@
+package net.engio.pips.lab.workload;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * An executor factory provides the executor that runs the parallel units of a workload.
+ * The executor must be able to run {@code workload.getParallelUnits()} tasks concurrently.
+ * See {@link ExecutorFactories} for the available implementations.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public interface IExecutorFactory {
+
+    ExecutorService create(Workload workload);
+
+}
@@ -0,0 +1,207 @@
+package net.engio.pips.lab.workload;
+
+import net.engio.pips.lab.ExecutionContext;
+import net.engio.pips.lab.common.SplitMix64;
+import net.engio.pips.lab.metrics.LatencyHistogram;
+import net.engio.pips.lab.metrics.TaskCounter;
+import net.engio.pips.lab.metrics.ThroughputMeter;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A task factory that mixes several operations within a single workload. Each invocation of a task
+ * created by the mix runs one of the operations, selected randomly according to the operation weights,
+ * e.g. 90% get, 9% put and 1% scan. Selection uses the alias method and costs O(1) regardless of
+ * the number of operations.
+ * <p>
+ * Each operation is accounted separately: its latencies are recorded into a histogram bound to the
+ * task context as {@link #getLatencyId(String)} and its completed and failed invocations are counted
+ * by a throughput meter of the workload (see {@link net.engio.pips.lab.Executions#getThroughput(Workload, String)}).
+ *
+ * <pre>
+ * workload.setITaskFactory(new TaskMix()
+ *     .add("get", 90, gets)
+ *     .add("put", 9, puts)
+ *     .add("scan", 1, scans));
+ * </pre>
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class TaskMix implements ITaskFactory {
+
+    private final List<Operation> operations = new LinkedList<Operation>();
+
+    private final AtomicInteger tasks = new AtomicInteger(0);
+
+    private long seed = System.nanoTime();
+
+    // alias tables, built when the first task is created
+    private volatile Selection selection;
+
+    /**
+     * Add an operation to the mix.
+     *
+     * @param name The name of the operation, used to identify its latencies and counters
+     * @param weight The relative frequency of the operation
+     * @param factory Creates the operation's task for each parallel unit
+     */
+    public synchronized TaskMix add(String name, double weight, ITaskFactory factory){
+        if(weight <= 0)
+            throw new IllegalArgumentException("Weight of operation " + name + " must be positive");
+        if(selection != null)
+            throw new IllegalStateException("Operations can not be added after tasks have been created");
+        for(Operation operation : operations)
+            if(operation.name.equals(name))
+                throw new IllegalArgumentException("Duplicate operation " + name);
+        operations.add(new Operation(name, weight, factory));
+        return this;
+    }
+
+    /**
+     * Seed the selection of operations. The n-th task created by this mix always selects the same sequence of
+     * operations for a given seed.
+     */
+    public TaskMix setSeed(long seed){
+        this.seed = seed;
+        return this;
+    }
+
+    public List<String> getOperations(){
+        List<String> names = new ArrayList<String>(operations.size());
+        for(Operation operation : operations)
+            names.add(operation.name);
+        return names;
+    }
+
+    public static String getLatencyId(String operation){
+        return operation + ":latency";
+    }
+
+    @Override
+    public ITask create(ExecutionContext context) {
+        Selection selection = getSelection();
+        ThroughputMeter workloadMeter = context.get(ThroughputMeter.Key);
+        ThroughputMeter warmupMeter = context.get(Warmup.getWarmupId(ThroughputMeter.Key));
+        int size = selection.operations.length;
+        final ITask[] tasks = new ITask[size];
+        final LatencyHistogram[] latencies = new LatencyHistogram[size];
+        final TaskCounter[] counters = new TaskCounter[size];
+        final TaskCounter[] warmupCounters = new TaskCounter[size];
+        for(int i = 0; i < size; i++){
+            Operation operation = selection.operations[i];
+            tasks[i] = operation.factory.create(context);
+            latencies[i] = new LatencyHistogram();
+            context.bind(getLatencyId(operation.name), latencies[i]);
+            counters[i] = workloadMeter != null
+                    ? workloadMeter.getMeter(operation.name).createCounter()
+                    : new TaskCounter(); // not run by a laboratory
+            warmupCounters[i] = warmupMeter != null
+                    ? warmupMeter.getMeter(operation.name).createCounter()
+                    : new TaskCounter();
+        }
+        final Selection alias = selection;
+        final SplitMix64 random = new SplitMix64(SplitMix64.seed(seed, this.tasks.getAndIncrement()));
+        return new ITask() {
+            @Override
+            public void run(ExecutionContext context) throws Exception {
+                int operation = alias.next(random);
+                // warmup operations are counted separately from the measurement
+                TaskCounter counter = context.isWarmup() ? warmupCounters[operation] : counters[operation];
+                long start = System.nanoTime();
+                try {
+                    tasks[operation].run(context);
+                } catch (Exception e) {
+                    counter.failed();
+                    throw e;
+                }
+                latencies[operation].record(System.nanoTime() - start);
+                counter.completed();
+            }
+        };
+    }
+
+    private Selection getSelection(){
+        if(selection == null){
+            synchronized (this){
+                if(operations.isEmpty())
+                    throw new IllegalStateException("Task mix without operations");
+                if(selection == null)
+                    selection = new Selection(operations.toArray(new Operation[operations.size()]));
+            }
+        }
+        return selection;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder mix = new StringBuilder("TaskMix(");
+        for(Operation operation : operations)
+            mix.append(operation.name).append("=").append(operation.weight).append(" ");
+        return mix.append(")").toString();
+    }
+
+    private static class Operation {
+
+        private final String name;
+        private final double weight;
+        private final ITaskFactory factory;
+
+        private Operation(String name, double weight, ITaskFactory factory) {
+            this.name = name;
+            this.weight = weight;
+            this.factory = factory;
+        }
+    }
+
+    // Vose's alias method: one uniform index and one uniform double per selection
+    private static class Selection {
+
+        private final Operation[] operations;
+        private final double[] probability;
+        private final int[] alias;
+
+        private Selection(Operation[] operations) {
+            int size = operations.length;
+            this.operations = operations;
+            this.probability = new double[size];
+            this.alias = new int[size];
+            double total = 0;
+            for(Operation operation : operations)
+                total += operation.weight;
+            double[] scaled = new double[size];
+            int[] small = new int[size], large = new int[size];
+            int smalls = 0, larges = 0;
+            for(int i = 0; i < size; i++){
+                scaled[i] = operations[i].weight * size / total;
+                if(scaled[i] < 1)
+                    small[smalls++] = i;
+                else
+                    large[larges++] = i;
+            }
+            while(smalls > 0 && larges > 0){
+                int less = small[--smalls], more = large[--larges];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1;
+                if(scaled[more] < 1)
+                    small[smalls++] = more;
+                else
+                    large[larges++] = more;
+            }
+            // remaining entries are (numerically close to) one
+            while(larges > 0)
+                probability[large[--larges]] = 1;
+            while(smalls > 0)
+                probability[small[--smalls]] = 1;
+        }
+
+        private int next(SplitMix64 random){
+            int column = random.nextInt(probability.length);
+            return random.nextDouble() < probability[column] ? column : alias[column];
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package net.engio.pips.lab.workload;
+
+import net.engio.pips.lab.metrics.SteadyStateDetector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A warmup defines how long each task of a workload runs before the actual measurement starts.
+ * During warmup the tasks are executed back to back. Latencies and datapoints recorded by the task while warming up
+ * are kept separately (see {@link #getWarmupId(String)}) and warmup operations are counted separately
+ * (see {@link net.engio.pips.lab.Executions#getWarmupCompleted(Workload)}), such that measurements reflect the
+ * steady state of the code under test.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class Warmup {
+
+    private int repetitions = -1;
+
+    private int timeout = -1;
+
+    private TimeUnit unit;
+
+    private boolean steadyState = false;
+
+    private int windowSize;
+
+    private double tolerance;
+
+    public Warmup(int repetitions) {
+        if(repetitions < 1)
+            throw new IllegalArgumentException("Illegal number of warmup repetitions:" + repetitions);
+        this.repetitions = repetitions;
+    }
+
+    public Warmup(int timeout, TimeUnit unit) {
+        if(timeout < 1 || unit == null)
+            throw new IllegalArgumentException("Illegal warmup timeout:" + timeout + unit);
+        this.timeout = timeout;
+        this.unit = unit;
+    }
+
+    /**
+     * Warm up until the latency of the task is steady but at most for the given time
+     */
+    public Warmup(int windowSize, double tolerance, int maxTime, TimeUnit unit) {
+        this(maxTime, unit);
+        this.steadyState = true;
+        this.windowSize = windowSize;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * The id under which warmup samples of the collector or timer with the given id are bound
+     */
+    public static String getWarmupId(String id){
+        return "warmup:" + id;
+    }
+
+    public boolean isRepetitive() {
+        return repetitions > 0;
+    }
+
+    public boolean isTimeBased() {
+        return unit != null;
+    }
+
+    public boolean isSteadyStateDetection() {
+        return steadyState;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public long inMillisecs(){
+        return TimeUnit.MILLISECONDS.convert(timeout, unit);
+    }
+
+    /**
+     * Create the condition that tracks the warmup of a single task. The condition
+     * is not thread-safe.
+     */
+    public Condition start(){
+        return new Condition();
+    }
+
+    @Override
+    public String toString() {
+        if(steadyState) return "warm up until steady (max " + timeout + unit + ")";
+        if(isTimeBased()) return "warm up for " + timeout + unit;
+        return "warm up " + repetitions + " times";
+    }
+
+    public class Condition{
+
+        private final long deadline = isTimeBased() ? System.currentTimeMillis() + inMillisecs() : -1;
+
+        private final SteadyStateDetector detector = steadyState ? new SteadyStateDetector(windowSize, 3, tolerance) : null;
+
+        private int executed = 0;
+
+        /**
+         * @param latency The latency of the most recent warmup round in nanoseconds
+         * @return True, if the warmup is finished
+         */
+        public boolean isFinished(long latency){
+            executed++;
+            if(detector != null && detector.record(latency))
+                return true;
+            if(isTimeBased())
+                return System.currentTimeMillis() >= deadline;
+            return executed >= repetitions;
+        }
+    }
+}
@@ -25,6 +25,10 @@ public class Workload {
 
     private Duration duration;
 
+    private ArrivalRate arrivalRate;
+
+    private Warmup warmup;
+
     private StartCondition starting;
 
     private String name;
@@ -35,6 +39,12 @@ public class Workload {
 
     private long delay = -1;
 
+    private boolean traceRounds = false;
+
+    private int batchSize = 1;
+
+    private IExecutorFactory executorFactory;
+
     private Map<ExecutionEvent, ExecutionHandlerWrapper> handlers = new HashMap<ExecutionEvent, ExecutionHandlerWrapper>();
 
 
@@ -63,6 +73,58 @@ public class Workload {
         return delay > 0;
     }
 
+    /**
+     * Log the lifecycle and every single execution of each task. Tracing is off by default because building and
+     * writing a log message per round adds considerable overhead to cheap tasks. Progress is
+     * reported periodically instead (see {@link net.engio.pips.lab.Benchmark#setProgressInterval(int)}).
+     *
+     * @param traceRounds True, if each round should be written to the log
+     * @return This workload
+     */
+    public Workload setTraceRounds(boolean traceRounds){
+        this.traceRounds = traceRounds;
+        return this;
+    }
+
+    public boolean isTracingRounds(){
+        return traceRounds;
+    }
+
+    /**
+     * Set the number of operations that each invocation of an {@link IBatchTask} runs. Each invocation
+     * of a batch task counts as one round, e.g. a duration of 100 repetitions with a batch size of 1000 runs
+     * 100000 operations per parallel unit. Tasks that do not implement {@link IBatchTask} are not affected.
+     *
+     * @param batchSize The number of operations per invocation
+     * @return This workload
+     */
+    public Workload setBatchSize(int batchSize){
+        if(batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive");
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the strategy used to run the parallel units of this workload. If none is set,
+     * the default of the {@link net.engio.pips.lab.Laboratory} will be used.
+     *
+     * @param executorFactory For example {@link ExecutorFactories#VirtualThreads}
+     * @return This workload
+     */
+    public Workload setExecutorFactory(IExecutorFactory executorFactory){
+        this.executorFactory = executorFactory;
+        return this;
+    }
+
+    public IExecutorFactory getExecutorFactory() {
+        return executorFactory;
+    }
+
     public long getExecutionTime(){
         return isFinished() ? finished - started : -1;
     }
@@ -135,6 +197,35 @@ public class Workload {
         return starting;
     }
 
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public boolean hasWarmup() {
+        return warmup != null;
+    }
+
+    public ArrivalRate getArrivalRate() {
+        return arrivalRate;
+    }
+
+    /**
+     * An open-loop workload issues operations according to its {@link ArrivalRate}
+     * instead of running its tasks back to back.
+     */
+    public boolean isOpenLoop() {
+        return arrivalRate != null;
+    }
+
+    /**
+     * The identifier under which each task of an open-loop workload binds its {@link net.engio.pips.lab.metrics.LatencyHistogram}.
+     * Latencies are measured in nanoseconds from the intended start time of each operation.
+     * Tasks of a closed-loop workload bind their histogram only if they are {@link IBatchTask}s.
+     */
+    public String getLatencyId() {
+        return name + ":latency";
+    }
+
     public StartSpecification starts(){
         return new StartSpecification();
     }
@@ -143,6 +234,14 @@ public class Workload {
         return new DurationSpecification();
     }
 
+    public ArrivalSpecification arrivals(){
+        return new ArrivalSpecification();
+    }
+
+    public WarmupSpecification warmup(){
+        return new WarmupSpecification();
+    }
+
     private static final ExecutionHandler Empty = new ExecutionHandler() {
         @Override
         public void handle(ExecutionContext context) {
@@ -161,6 +260,16 @@ public class Workload {
         wl.append(getStartCondition());
         wl.append(",");
         wl.append(getDuration());
+        if(batchSize > 1)
+            wl.append(",Batch size:" + batchSize);
+        if(hasWarmup()){
+            wl.append(",");
+            wl.append(getWarmup());
+        }
+        if(isOpenLoop()){
+            wl.append(",");
+            wl.append(getArrivalRate());
+        }
         wl.append("\n");
         return wl.toString();
     }
@@ -213,6 +322,55 @@ public class Workload {
 
     }
 
+    // intermediate class for clean API
+    public class ArrivalSpecification{
+
+        /**
+         * Issue operations at a fixed rate with constant intervals. Any specified delay is ignored.
+         */
+        public Workload constant(double opsPerSecond){
+            arrivalRate = new ArrivalRate(opsPerSecond, ArrivalRate.Distribution.Constant);
+            return Workload.this;
+        }
+
+        /**
+         * Issue operations at a fixed average rate with exponentially distributed intervals. Any specified delay is ignored.
+         */
+        public Workload poisson(double opsPerSecond){
+            arrivalRate = new ArrivalRate(opsPerSecond, ArrivalRate.Distribution.Poisson);
+            return Workload.this;
+        }
+
+    }
+
+    // intermediate class for clean API
+    public class WarmupSpecification{
+
+        public Workload repetitions(int repetitions){
+            warmup = new Warmup(repetitions);
+            return Workload.this;
+        }
+
+        public Workload lasts(int timeout, TimeUnit unit){
+            warmup = new Warmup(timeout, unit);
+            return Workload.this;
+        }
+
+        /**
+         * Warm up until the mean latency of the last three windows of 1000 executions
+         * differs by less than 5%, but at most for the given time.
+         */
+        public Workload untilSteady(int maxTime, TimeUnit unit){
+            return untilSteady(1000, 0.05, maxTime, unit);
+        }
+
+        public Workload untilSteady(int windowSize, double tolerance, int maxTime, TimeUnit unit){
+            warmup = new Warmup(windowSize, tolerance, maxTime, unit);
+            return Workload.this;
+        }
+
+    }
+
     // wrap multiple execution handlers
     public  static class ExecutionHandlerWrapper implements ExecutionHandler{
 
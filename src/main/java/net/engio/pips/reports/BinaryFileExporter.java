@@ -0,0 +1,39 @@
+package net.engio.pips.reports;
+
+import net.engio.pips.data.IDataCollector;
+import net.engio.pips.lab.Benchmark;
+import net.engio.pips.lab.store.ISeries;
+import net.engio.pips.lab.store.ResultStore;
+import net.engio.pips.lab.store.SpillingCollector;
+
+import java.io.File;
+
+/**
+ * Exports the datapoints of all collectors of the benchmark, its throughput series and latency histograms
+ * (see {@link net.engio.pips.lab.Executions#getSeries()}) into a compact binary file in the report directory (see {@link ResultStore} for the format). In contrast to the {@link CSVFileExporter}
+ * the export is lossless and can be reopened for further analysis using {@link ResultStore#open(File, String)}.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class BinaryFileExporter implements IReporter {
+
+    public static final String FileName = "collectors.bin";
+
+    public void generate(Benchmark benchmark) throws Exception {
+        ResultStore store = new ResultStore(new File(benchmark.getReportBaseDir()), FileName);
+        try {
+            for (IDataCollector collector : benchmark.getCollectors()) {
+                SpillingCollector export = store.createCollector(collector.getId());
+                collector.feed(export);
+            }
+            // a streaming benchmark has stored its metrics with its results already
+            if(!benchmark.isStreamingResults() && benchmark.getExecutions() != null)
+                for(ISeries series : benchmark.getExecutions().getSeries())
+                    store.store(series);
+        } finally {
+            store.close();
+        }
+    }
+
+}
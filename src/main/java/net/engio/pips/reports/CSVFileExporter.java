@@ -2,6 +2,9 @@ package net.engio.pips.reports;
 
 import net.engio.pips.data.IDataCollector;
 import net.engio.pips.lab.Benchmark;
+import net.engio.pips.lab.store.ISeries;
+import net.engio.pips.lab.store.ISeriesConsumer;
+import net.engio.pips.lab.store.ResultStore;
 
 import java.io.File;
 import java.io.PrintWriter;
@@ -15,7 +18,7 @@ public class CSVFileExporter implements IReporter {
     public void generate(Benchmark benchmark) throws Exception {
         String reportDirectory = benchmark.getReportBaseDir();
         File report = new File(reportDirectory + "report.txt");
-        PrintWriter writer = new PrintWriter(report);
+        final PrintWriter writer = new PrintWriter(report);
         try {
 
             // write report header
@@ -29,6 +32,26 @@ public class CSVFileExporter implements IReporter {
                 writer.println(collector);
             }
 
+            // stream the datapoints of all stored series
+            if (benchmark.isStreamingResults()) {
+                writer.println();
+                writer.println("##### STORED SERIES ########");
+                ResultStore store = benchmark.getResultStore();
+                for (String id : store.getSeriesIds()) {
+                    for (ISeries series : store.getSeries(id)) {
+                        writer.println(series);
+                        series.feed(new ISeriesConsumer() {
+                            @Override
+                            public void consume(long timestamp, double value) {
+                                writer.print(timestamp);
+                                writer.print(",");
+                                writer.println(value);
+                            }
+                        });
+                    }
+                }
+            }
+
 
         } finally {
             writer.close();
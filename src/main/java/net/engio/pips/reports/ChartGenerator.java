@@ -15,6 +15,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -25,6 +30,7 @@ public class ChartGenerator implements IReporter {
 
     private List<SeriesGroup> groups = new ArrayList<SeriesGroup>();
     private int pixelPerDatapoint = 5;
+    private int maxWidth = 4096;
     private String title = "Title";
     private String xLabel = "X-Axis";
     private String filename = "chart.jpg";
@@ -34,6 +40,15 @@ public class ChartGenerator implements IReporter {
         return this;
     }
 
+    /**
+     * Limit the width of the chart. Series with more datapoints than fit into this width (given the
+     * pixels per datapoint) are downsampled, which bounds memory and rendering time of the chart.
+     */
+    public ChartGenerator setMaxWidth(int maxWidth) {
+        this.maxWidth = Math.max(1024, maxWidth);
+        return this;
+    }
+
     public ChartGenerator setTitle(String title) {
         this.title = title;
         return this;
@@ -55,12 +70,19 @@ public class ChartGenerator implements IReporter {
         return this;
     }
 
-    public void generate(Benchmark benchmark){
+    public void generate(Benchmark benchmark) throws Exception{
         Map<String, Integer> groupAxis = new HashMap<String, Integer>();
+        // calculate width of graph based on number of total data points
+        // Note: assumes that the data of all groups spans (roughly) the same domain range
+        long maxNumberOfDatapoints = 0;
+        for(SeriesGroup group : this.groups)
+            maxNumberOfDatapoints = Math.max(maxNumberOfDatapoints, group.countDatapoints());
+        int width = (int)Math.max(1024, Math.min(maxWidth, maxNumberOfDatapoints * pixelPerDatapoint));
+        int maxDatapoints = Math.max(2, width / pixelPerDatapoint);
+        List<TimeSeriesCollection> dataSets = createDataSets(benchmark, maxDatapoints);
         // process default group
         SeriesGroup defaultGroup = this.groups.get(0);
-        TimeSeriesCollection collection = defaultGroup.createDataSet(benchmark);
-        int maxNumberOfDatapoints = defaultGroup.getSize();
+        TimeSeriesCollection collection = dataSets.get(0);
         groupAxis.put(defaultGroup.getLabel(), 0);
 
         // create initial chart
@@ -81,14 +103,14 @@ public class ChartGenerator implements IReporter {
         plot.setDomainGridlinesVisible(true);
         plot.setDomainGridlinePaint(Color.BLACK);
         plot.setBackgroundPaint(Color.DARK_GRAY);
-        plot.setRenderer(0, getRandomRenderer());
+        plot.setRenderer(0, getRenderer(0));
         // add other groups
         List<SeriesGroup> groups = this.groups.subList(1, this.groups.size());
         int axisIndex = 1,
             dataSetIndex = 1;
         for(SeriesGroup group : groups){
-            plot.setDataset(dataSetIndex, group.createDataSet(benchmark));
-            plot.setRenderer(dataSetIndex, getRandomRenderer());
+            plot.setDataset(dataSetIndex, dataSets.get(dataSetIndex));
+            plot.setRenderer(dataSetIndex, getRenderer(dataSetIndex));
 
             // if the group does not share a range axis with an already mapped group
             if(!groupAxis.containsKey(group.getLabel())){
@@ -108,32 +130,57 @@ public class ChartGenerator implements IReporter {
             }
 
             dataSetIndex++;
-           if(maxNumberOfDatapoints < group.getSize())maxNumberOfDatapoints = group.getSize();
         }
 
-        // calculate width of graph based on number of total data points
-        // Note: assumes that the data of all groups spans (roughly) the same domain range
-        int width = maxNumberOfDatapoints * pixelPerDatapoint;
-
         try {
             String path = benchmark.getReportBaseDir() + filename;
-            ChartUtilities.saveChartAsJPEG(new File(path), chart, width <= 1024 ? 1024 : width, 1024);
+            ChartUtilities.saveChartAsJPEG(new File(path), chart, width, 1024);
         } catch (IOException e) {
             System.err.println("Problem occurred creating chart.");
         }
     }
 
-    private Random rand = new Random();
-    private Color getRandomColor(){
-        return new Color(Math.abs(rand.nextInt()) % 256,// r
-                Math.abs(rand.nextInt()) % 256, // g
-                Math.abs(rand.nextInt()) % 256); //b
+    // create the data sets of all groups in parallel (on at most the number of report threads of the benchmark)
+    private List<TimeSeriesCollection> createDataSets(final Benchmark benchmark, final int maxDatapoints) throws Exception {
+        List<TimeSeriesCollection> dataSets = new ArrayList<TimeSeriesCollection>(groups.size());
+        int threads = Math.min(benchmark.getReportThreads(), groups.size());
+        if(threads <= 1){
+            for(SeriesGroup group : groups)
+                dataSets.add(group.createDataSet(benchmark, maxDatapoints));
+            return dataSets;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<TimeSeriesCollection>> created = new ArrayList<Future<TimeSeriesCollection>>(groups.size());
+            for(final SeriesGroup group : groups)
+                created.add(executor.submit(new Callable<TimeSeriesCollection>() {
+                    @Override
+                    public TimeSeriesCollection call() throws Exception {
+                        return group.createDataSet(benchmark, maxDatapoints);
+                    }
+                }));
+            for(Future<TimeSeriesCollection> dataSet : created)
+                dataSets.add(dataSet.get());
+            return dataSets;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // colors depend only on the position of the data set, such that the same charts look the same
+    private Color getColor(int dataSetIndex){
+        Random rand = new Random(dataSetIndex);
+        return new Color(rand.nextInt(256),// r
+                rand.nextInt(256), // g
+                rand.nextInt(256)); //b
     }
 
 
-    private XYLineAndShapeRenderer getRandomRenderer(){
+    private XYLineAndShapeRenderer getRenderer(int dataSetIndex){
         XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer();
-        renderer.setSeriesPaint(0, getRandomColor());
+        renderer.setSeriesPaint(0, getColor(dataSetIndex));
         return renderer;
     }
 
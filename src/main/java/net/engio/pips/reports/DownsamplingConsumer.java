@@ -0,0 +1,130 @@
+package net.engio.pips.reports;
+
+import net.engio.pips.data.DataPoint;
+import net.engio.pips.data.DataProcessor;
+import net.engio.pips.lab.store.ISeriesConsumer;
+import org.jfree.data.time.FixedMillisecond;
+import org.jfree.data.time.TimeSeries;
+
+/**
+ * Reduces a stream of datapoints to a fixed number of time buckets, keeping the minimum, maximum and mean
+ * of each bucket. The buckets initially span one millisecond each. Whenever a datapoint falls behind the last
+ * bucket, adjacent buckets are merged, doubling their width. Memory is therefore bounded by the number of buckets
+ * and each datapoint is processed in (amortized) constant time, regardless of the length of the series.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class DownsamplingConsumer<N extends Number> extends DataProcessor<N,N> implements ISeriesConsumer {
+
+    private final String label;
+
+    private final int buckets;
+
+    private final double[] min;
+
+    private final double[] max;
+
+    private final double[] sum;
+
+    private final long[] count;
+
+    private long start = -1;
+
+    private long width = 1;
+
+    public DownsamplingConsumer(String label, int buckets) {
+        if(buckets < 2)
+            throw new IllegalArgumentException("At least two buckets required");
+        this.label = label;
+        this.buckets = buckets;
+        this.min = new double[buckets];
+        this.max = new double[buckets];
+        this.sum = new double[buckets];
+        this.count = new long[buckets];
+    }
+
+    @Override
+    public void receive(DataPoint<N> datapoint) {
+        consume(datapoint.getTsCreated(), datapoint.getValue().doubleValue());
+        emit(datapoint);
+    }
+
+    @Override
+    public void consume(long timestamp, double value) {
+        if(start < 0)
+            start = timestamp;
+        long offset = Math.max(0, timestamp - start); // datapoints out of order are added to the first bucket
+        while(offset >= width * buckets)
+            merge();
+        int bucket = (int)(offset / width);
+        if(count[bucket] == 0){
+            min[bucket] = value;
+            max[bucket] = value;
+        }
+        else{
+            if(value < min[bucket]) min[bucket] = value;
+            if(value > max[bucket]) max[bucket] = value;
+        }
+        sum[bucket] += value;
+        count[bucket]++;
+    }
+
+    // merge each pair of adjacent buckets into one bucket of twice the width
+    private void merge(){
+        for(int target = 0; target < buckets; target++){
+            int first = target * 2, second = first + 1;
+            if(first >= buckets){
+                count[target] = 0;
+                sum[target] = 0;
+                continue;
+            }
+            double bucketMin = min[first], bucketMax = max[first], bucketSum = sum[first];
+            long bucketCount = count[first];
+            if(second < buckets && count[second] > 0){
+                if(bucketCount == 0 || min[second] < bucketMin) bucketMin = min[second];
+                if(bucketCount == 0 || max[second] > bucketMax) bucketMax = max[second];
+                bucketSum += sum[second];
+                bucketCount += count[second];
+            }
+            min[target] = bucketMin;
+            max[target] = bucketMax;
+            sum[target] = bucketSum;
+            count[target] = bucketCount;
+        }
+        width *= 2;
+    }
+
+    public TimeSeries getMean(){
+        TimeSeries series = new TimeSeries(label);
+        for(int bucket = 0; bucket < buckets; bucket++)
+            if(count[bucket] > 0)
+                series.add(new FixedMillisecond(getTimestamp(bucket)), sum[bucket] / count[bucket], false);
+        return series;
+    }
+
+    public TimeSeries getMin(){
+        return getSeries(label + " (min)", min);
+    }
+
+    public TimeSeries getMax(){
+        return getSeries(label + " (max)", max);
+    }
+
+    private TimeSeries getSeries(String label, double[] values){
+        TimeSeries series = new TimeSeries(label);
+        for(int bucket = 0; bucket < buckets; bucket++)
+            if(count[bucket] > 0)
+                series.add(new FixedMillisecond(getTimestamp(bucket)), values[bucket], false);
+        return series;
+    }
+
+    // the center of the bucket
+    private long getTimestamp(int bucket){
+        return start + bucket * width + width / 2;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
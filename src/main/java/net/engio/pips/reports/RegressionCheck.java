@@ -0,0 +1,151 @@
+package net.engio.pips.reports;
+
+import net.engio.pips.lab.Benchmark;
+import net.engio.pips.lab.LabException;
+import net.engio.pips.lab.metrics.Metric;
+import net.engio.pips.lab.store.BenchmarkRun;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Compares the results of the benchmark with the stored results of its previous runs (see {@link BinaryFileExporter}
+ * and {@link Benchmark#setStreamResults(boolean)}) and fails with a {@link LabException} if the latency, throughput
+ * or failure rate of any series has regressed significantly. The comparison of each series is written to {@code regression.txt}.
+ * The {@link Metric} of a series determines which threshold applies and whether an increase or a decrease is a regression.
+ * <p>
+ * A regression is reported if the relative change exceeds the configured threshold and a Mann-Whitney U test
+ * rejects the hypothesis that both runs stem from the same distribution.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class RegressionCheck implements IReporter {
+
+    private int baselineRuns = 1;
+
+    private double maxLatencyIncrease = 10;
+
+    private double maxThroughputDecrease = 10;
+
+    private double maxFailureIncrease = 10;
+
+    private double significanceLevel = 0.01;
+
+    private double percentile = 50;
+
+    private String filename = "regression.txt";
+
+    /**
+     * @param baselineRuns The number of previous runs that are pooled into the baseline
+     */
+    public RegressionCheck setBaselineRuns(int baselineRuns) {
+        this.baselineRuns = baselineRuns;
+        return this;
+    }
+
+    /**
+     * @param maxLatencyIncrease The maximum accepted increase of the latency percentile in percent
+     */
+    public RegressionCheck setMaxLatencyIncrease(double maxLatencyIncrease) {
+        this.maxLatencyIncrease = maxLatencyIncrease;
+        return this;
+    }
+
+    /**
+     * @param maxThroughputDecrease The maximum accepted decrease of throughput in percent
+     */
+    public RegressionCheck setMaxThroughputDecrease(double maxThroughputDecrease) {
+        this.maxThroughputDecrease = maxThroughputDecrease;
+        return this;
+    }
+
+    /**
+     * @param maxFailureIncrease The maximum accepted increase of the failure rate in percent
+     */
+    public RegressionCheck setMaxFailureIncrease(double maxFailureIncrease) {
+        this.maxFailureIncrease = maxFailureIncrease;
+        return this;
+    }
+
+    public RegressionCheck setSignificanceLevel(double significanceLevel) {
+        this.significanceLevel = significanceLevel;
+        return this;
+    }
+
+    /**
+     * @param percentile The latency percentile to compare, e.g. 50 (default) or 99
+     */
+    public RegressionCheck setPercentile(double percentile) {
+        this.percentile = percentile;
+        return this;
+    }
+
+    public RegressionCheck setFileName(String filename) {
+        this.filename = filename;
+        return this;
+    }
+
+    public void generate(Benchmark benchmark) throws Exception {
+        File current = new File(benchmark.getReportBaseDir());
+        PrintWriter log = new PrintWriter(benchmark.getLogStream(), true);
+        List<BenchmarkRun> baselines = new ArrayList<BenchmarkRun>();
+        BenchmarkRun candidate = null;
+        List<SeriesDelta> regressions = new ArrayList<SeriesDelta>();
+        PrintWriter writer = null;
+        try {
+            // collect the most recent previous runs, walking backwards from the newest one
+            List<File> runs = BenchmarkRun.list(current.getParentFile().getParent(), benchmark.getTitle());
+            ListIterator<File> previous = runs.listIterator(runs.size());
+            while(previous.hasPrevious() && baselines.size() < baselineRuns){
+                File run = previous.previous();
+                if(run.equals(current)) continue;
+                BenchmarkRun stored = BenchmarkRun.load(run);
+                if(stored.isEmpty())
+                    stored.close();
+                else
+                    baselines.add(stored);
+            }
+            if(baselines.isEmpty()){
+                log.println("Skipping regression check because no previous runs of " + benchmark.getTitle() + " have been stored");
+                return;
+            }
+
+            candidate = BenchmarkRun.of(benchmark);
+            RunComparison comparison = new RunComparison(baselines, candidate, percentile);
+            writer = new PrintWriter(new File(current, filename));
+            writer.println("###### REGRESSION CHECK ##########");
+            for(BenchmarkRun baseline : baselines)
+                writer.println("Baseline: " + baseline);
+            writer.println();
+            for(SeriesDelta delta : comparison.getDeltas()){
+                boolean regression = delta.isRegression(getMaxChange(delta.getMetric()), significanceLevel);
+                if(regression) regressions.add(delta);
+                writer.println((regression ? "REGRESSION " : "") + delta);
+            }
+        } finally {
+            if(writer != null)
+                writer.close();
+            if(candidate != null)
+                candidate.close();
+            for(BenchmarkRun baseline : baselines)
+                baseline.close();
+        }
+
+        if(!regressions.isEmpty())
+            throw new LabException("Performance regression in " + benchmark.getTitle() + ": " + regressions,
+                    LabException.ErrorCode.PerformanceRegression);
+    }
+
+    private double getMaxChange(Metric metric){
+        switch (metric){
+            case Throughput: return maxThroughputDecrease;
+            case Failures: return maxFailureIncrease;
+            default: return maxLatencyIncrease;
+        }
+    }
+
+}
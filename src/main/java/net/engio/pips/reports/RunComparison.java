@@ -0,0 +1,45 @@
+package net.engio.pips.reports;
+
+import net.engio.pips.lab.metrics.Metric;
+import net.engio.pips.lab.metrics.SeriesStatistics;
+import net.engio.pips.lab.store.BenchmarkRun;
+import net.engio.pips.lab.store.ISeries;
+import net.engio.pips.lab.workload.Warmup;
+
+import java.util.*;
+
+/**
+ * Compares the series of a candidate run with the series of one or more baseline runs of the same benchmark.
+ * Series are matched by their id. All sources of a series id (e.g. the timers of all tasks) as well as all baseline
+ * runs are pooled. The {@link Metric} of each series is derived from its id.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class RunComparison {
+
+    private final List<SeriesDelta> deltas = new ArrayList<SeriesDelta>();
+
+    public RunComparison(List<BenchmarkRun> baselines, BenchmarkRun candidate, double percentile) {
+        String warmup = Warmup.getWarmupId("");
+        for(String id : candidate.getSeriesIds()){
+            if(id.startsWith(warmup))
+                continue; // the warmup is not part of the measurement
+            Metric metric = Metric.of(id);
+            SeriesStatistics baseline = new SeriesStatistics(metric);
+            for(BenchmarkRun run : baselines)
+                for(ISeries series : run.getSeries(id))
+                    baseline.add(series);
+            if(baseline.getCount() == 0)
+                continue; // nothing to compare with
+            SeriesStatistics current = new SeriesStatistics(metric);
+            for(ISeries series : candidate.getSeries(id))
+                current.add(series);
+            deltas.add(new SeriesDelta(id, baseline, current, percentile));
+        }
+    }
+
+    public List<SeriesDelta> getDeltas() {
+        return Collections.unmodifiableList(deltas);
+    }
+}
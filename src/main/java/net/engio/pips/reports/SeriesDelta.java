@@ -0,0 +1,92 @@
+package net.engio.pips.reports;
+
+import net.engio.pips.lab.metrics.MannWhitney;
+import net.engio.pips.lab.metrics.Metric;
+import net.engio.pips.lab.metrics.SeriesStatistics;
+
+/**
+ * The difference of a single series between a baseline and a candidate run. Latencies are compared by the
+ * configured percentile, rates (throughput and failures) by their mean. Whether an increase or a decrease
+ * is a regression depends on the {@link Metric} of the series.
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class SeriesDelta {
+
+    private final String id;
+
+    private final Metric metric;
+
+    private final SeriesStatistics baseline;
+
+    private final SeriesStatistics candidate;
+
+    private final double percentile;
+
+    private final double pValue;
+
+    public SeriesDelta(String id, SeriesStatistics baseline, SeriesStatistics candidate, double percentile) {
+        this.id = id;
+        this.metric = candidate.getMetric();
+        this.baseline = baseline;
+        this.candidate = candidate;
+        this.percentile = percentile;
+        this.pValue = MannWhitney.test(baseline.getValueSample(), candidate.getValueSample());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public double getBaselineValue(){
+        return valueOf(baseline);
+    }
+
+    public double getCandidateValue(){
+        return valueOf(candidate);
+    }
+
+    private double valueOf(SeriesStatistics statistics){
+        return metric.isRate() ? statistics.getMean() : statistics.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @return The relative change of the compared value in percent
+     */
+    public double getChange(){
+        return change(getBaselineValue(), getCandidateValue());
+    }
+
+    public double getPValue() {
+        return pValue;
+    }
+
+    /**
+     * @param maxChange The maximum accepted change in percent in the worse direction of the metric
+     * @return True, if the value changed for the worse by more than the accepted change and the change is significant
+     */
+    public boolean isRegression(double maxChange, double significanceLevel){
+        double worse = metric.isHigherBetter() ? -getChange() : getChange();
+        return worse > maxChange && pValue < significanceLevel;
+    }
+
+    private static double change(double baseline, double candidate){
+        if(baseline == 0)
+            return candidate == 0 ? 0 : Double.POSITIVE_INFINITY;
+        return (candidate - baseline) / baseline * 100;
+    }
+
+    @Override
+    public String toString() {
+        String compared = metric.isRate()
+                ? "mean"
+                : "p" + (percentile % 1 == 0 ? String.valueOf((int)percentile) : String.valueOf(percentile));
+        return String.format("%s (%s): %s %.2f -> %.2f (%+.2f%%, p=%.4f)",
+                id, metric, compared, getBaselineValue(), getCandidateValue(), getChange(), pValue);
+    }
+}
@@ -3,6 +3,7 @@ package net.engio.pips.reports;
 import net.engio.pips.data.IDataCollector;
 import net.engio.pips.data.utils.TimeBasedAggregator;
 import net.engio.pips.lab.Benchmark;
+import net.engio.pips.lab.store.ISeries;
 import org.jfree.data.time.TimeSeries;
 import org.jfree.data.time.TimeSeriesCollection;
 
@@ -28,12 +29,16 @@ public class SeriesGroup {
 
     private Collection<IDataCollector> collectors = new ArrayList<IDataCollector>();
 
+    private Collection<ISeries> series = new ArrayList<ISeries>();
+
     private int size;
 
     private String yAxis = "";
 
     private Orientation orientation = Orientation.Left;
 
+    private boolean showExtremes = false;
+
     public SeriesGroup(String label) {
         this.label = label;
     }
@@ -58,6 +63,42 @@ public class SeriesGroup {
         return this;
     }
 
+    /**
+     * Add a series that is read lazily when the data set is created, e.g. a series
+     * from the {@link net.engio.pips.lab.store.ResultStore}
+     */
+    public SeriesGroup addSeries(ISeries series){
+        this.series.add(series);
+        return this;
+    }
+
+    public SeriesGroup addSeries(List<ISeries> series){
+        for(ISeries single : series)
+            addSeries(single);
+        return this;
+    }
+
+    /**
+     * Add the minimum and maximum of each interval as separate series when a series is downsampled
+     * (see {@link #createDataSet(Benchmark, int)})
+     */
+    public SeriesGroup setShowExtremes(boolean showExtremes) {
+        this.showExtremes = showExtremes;
+        return this;
+    }
+
+    /**
+     * @return The number of datapoints of the longest collector or series of this group
+     */
+    public long countDatapoints(){
+        long max = 0;
+        for(IDataCollector collector : collectors)
+            if(collector != null && collector.size() > max)max = collector.size();
+        for(ISeries single : series)
+            if(single != null && single.size() > max)max = single.size();
+        return max;
+    }
+
     public String getLabel() {
         return label;
     }
@@ -77,6 +118,52 @@ public class SeriesGroup {
 
 
 
+    /**
+     * Create a data set from all collectors and series of this group. Collectors and series with more
+     * than the given number of datapoints are downsampled into that many intervals while they are read,
+     * such that the size of the data set is bounded regardless of the number of datapoints.
+     */
+    public TimeSeriesCollection createDataSet(Benchmark benchmark, int maxDatapoints){
+        TimeSeriesCollection collection = new TimeSeriesCollection();
+        for(IDataCollector collector : collectors){
+            if(collector == null || collector.size() == 0)continue;
+            if(collector.size() <= maxDatapoints){
+                TimeSeriesConsumer wrapper = new TimeSeriesConsumer(collector.getId());
+                collector.feed(wrapper);
+                collection.addSeries(wrapper.getSeries());
+            }
+            else{
+                DownsamplingConsumer consumer = new DownsamplingConsumer(collector.getId(), maxDatapoints);
+                collector.feed(consumer);
+                addDownsampled(collection, consumer);
+            }
+            if(size < collector.size())size = collector.size();
+        }
+        for(ISeries single : series){
+            if(single == null || single.size() == 0)continue;
+            if(single.size() <= maxDatapoints){
+                TimeSeriesConsumer consumer = new TimeSeriesConsumer(single.getId());
+                single.feed(consumer);
+                collection.addSeries(consumer.getSeries());
+            }
+            else{
+                DownsamplingConsumer consumer = new DownsamplingConsumer(single.getId(), maxDatapoints);
+                single.feed(consumer);
+                addDownsampled(collection, consumer);
+            }
+            if(size < single.size())size = (int)Math.min(Integer.MAX_VALUE, single.size());
+        }
+        return collection;
+    }
+
+    private void addDownsampled(TimeSeriesCollection collection, DownsamplingConsumer consumer){
+        collection.addSeries(consumer.getMean());
+        if(showExtremes){
+            collection.addSeries(consumer.getMin());
+            collection.addSeries(consumer.getMax());
+        }
+    }
+
     public TimeSeriesCollection createDataSet(Benchmark benchmark){
         TimeSeriesCollection collection = new TimeSeriesCollection();
         TimeBasedAggregator aggregator = new TimeBasedAggregator();
@@ -90,6 +177,14 @@ public class SeriesGroup {
             collection.addSeries(series);
             if(size < collector.size())size = collector.size();
         }
+        // stream the values of all other series
+        for(ISeries single : series){
+            if(single == null || single.size() == 0)continue;
+            TimeSeriesConsumer consumer = new TimeSeriesConsumer(single.getId());
+            single.feed(consumer);
+            collection.addSeries(consumer.getSeries());
+            if(size < single.size())size = (int)Math.min(Integer.MAX_VALUE, single.size());
+        }
         return collection;
     }
 }
@@ -2,35 +2,132 @@ package net.engio.pips.reports;
 
 import net.engio.pips.data.DataPoint;
 import net.engio.pips.data.DataProcessor;
+import net.engio.pips.lab.store.ISeriesConsumer;
 import org.jfree.data.time.FixedMillisecond;
 import org.jfree.data.time.TimeSeries;
 
+import java.util.Arrays;
+import java.util.Comparator;
+
 /**
+ * Collects datapoints into primitive arrays and builds the corresponding {@link TimeSeries} once, when it is
+ * requested. Datapoints that fall into the same interval (by default one millisecond) are aggregated into their mean
+ * instead of overwriting each other.
+ *
  * @author bennidi
  *         Date: 2/25/14
  */
-public class TimeSeriesConsumer<N extends Number> extends DataProcessor<N,N>{
+public class TimeSeriesConsumer<N extends Number> extends DataProcessor<N,N> implements ISeriesConsumer{
 
-    private TimeSeries series;
+    private final String label;
+
+    private final long interval;
+
+    // one entry per interval, the timestamp is the start of the interval
+    private long[] timestamps = new long[256];
+
+    private double[] sums = new double[256];
+
+    private int[] counts = new int[256];
+
+    private int size = 0;
 
-    private String label;
+    private boolean sorted = true;
+
+    private TimeSeries series;
 
     public TimeSeriesConsumer(String label) {
-       series = new TimeSeries(label);
+        this(label, 1);
+    }
+
+    /**
+     * @param interval The length of the intervals (in milliseconds) of which the mean value is charted
+     */
+    public TimeSeriesConsumer(String label, long interval) {
+        if(interval <= 0)
+            throw new IllegalArgumentException("Interval must be positive");
         this.label = label;
+        this.interval = interval;
     }
 
     @Override
     public void receive(DataPoint<N> datapoint) {
-        series.addOrUpdate(new FixedMillisecond(datapoint.getTsCreated()), datapoint.getValue());
+        consume(datapoint.getTsCreated(), datapoint.getValue().doubleValue());
         emit(datapoint);
     }
 
+    @Override
+    public void consume(long timestamp, double value) {
+        long start = timestamp - (timestamp % interval);
+        series = null;
+        if(size > 0 && timestamps[size - 1] == start){
+            // the common case: datapoints arrive in order
+            sums[size - 1] += value;
+            counts[size - 1]++;
+            return;
+        }
+        if(size > 0 && timestamps[size - 1] > start)
+            sorted = false;
+        if(size == timestamps.length){
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            sums = Arrays.copyOf(sums, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        timestamps[size] = start;
+        sums[size] = value;
+        counts[size++] = 1;
+    }
 
+    /**
+     * @return The series containing the mean value of each interval. The series is built when it is first requested
+     * after datapoints were added.
+     */
     public TimeSeries getSeries() {
+        if(series == null){
+            if(!sorted)
+                sort();
+            TimeSeries built = new TimeSeries(label);
+            // entries are ordered by time, so each item is appended without searching or firing events
+            for(int i = 0; i < size; i++)
+                built.add(new FixedMillisecond(timestamps[i]), sums[i] / counts[i], false);
+            series = built;
+        }
         return series;
     }
 
+    // order the entries by time and merge the entries of equal intervals
+    private void sort(){
+        Integer[] order = new Integer[size];
+        for(int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return timestamps[first] < timestamps[second] ? -1 : timestamps[first] == timestamps[second] ? 0 : 1;
+            }
+        });
+        long[] sortedTimestamps = new long[Math.max(1, size)];
+        double[] sortedSums = new double[sortedTimestamps.length];
+        int[] sortedCounts = new int[sortedTimestamps.length];
+        int merged = 0;
+        for(int i = 0; i < size; i++){
+            int entry = order[i];
+            if(merged > 0 && sortedTimestamps[merged - 1] == timestamps[entry]){
+                sortedSums[merged - 1] += sums[entry];
+                sortedCounts[merged - 1] += counts[entry];
+            }
+            else{
+                sortedTimestamps[merged] = timestamps[entry];
+                sortedSums[merged] = sums[entry];
+                sortedCounts[merged++] = counts[entry];
+            }
+        }
+        timestamps = sortedTimestamps;
+        sums = sortedSums;
+        counts = sortedCounts;
+        size = merged;
+        sorted = true;
+    }
 
     public String getLabel() {
         return label;
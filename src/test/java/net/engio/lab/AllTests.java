@@ -6,6 +6,10 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses(value = {
 LaboratoryTest.class,
-ExecutionContextTest.class})
+ExecutionContextTest.class,
+LatencyHistogramTest.class,
+ResultStoreTest.class,
+RangeTest.class,
+ChartGeneratorTest.class})
 public class AllTests {
 }
@@ -0,0 +1,117 @@
+package net.engio.lab;
+
+import net.engio.pips.lab.Benchmark;
+import net.engio.pips.lab.metrics.PrimitiveSeries;
+import net.engio.pips.reports.ChartGenerator;
+import net.engio.pips.reports.DownsamplingConsumer;
+import net.engio.pips.reports.IReporter;
+import net.engio.pips.reports.SeriesGroup;
+import net.engio.pips.reports.TimeSeriesConsumer;
+import org.jfree.data.time.TimeSeries;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+/**
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class ChartGeneratorTest extends UnitTest{
+
+    @Test
+    public void testDownsamplingKeepsExtremes(){
+        DownsamplingConsumer consumer = new DownsamplingConsumer("values", 100);
+        for(int i = 0; i < 1000000; i++)
+            consumer.consume(i, i == 500000 ? 1000 : i % 10);
+
+        TimeSeries mean = consumer.getMean();
+        assertTrue(mean.getItemCount() > 50 && mean.getItemCount() <= 100);
+        assertEquals(1000d, consumer.getMax().getMaxY());
+        assertEquals(0d, consumer.getMin().getMinY());
+        assertTrue(mean.getMaxY() < 1000);
+    }
+
+    @Test
+    public void testChartWidthIsBounded() throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        PrimitiveSeries values = new PrimitiveSeries("values");
+        for(int i = 0; i < 1000000; i++)
+            values.add(i, Math.sin(i / 1000d));
+
+        Benchmark benchmark = new Benchmark("chart")
+                .setBasePath(new File(System.getProperty("java.io.tmpdir"), "lab-tests" + File.separator + System.nanoTime()).getAbsolutePath());
+        new ChartGenerator()
+                .setMaxWidth(2048)
+                .draw(new SeriesGroup("Values").addSeries(values).setShowExtremes(true))
+                .generate(benchmark);
+
+        BufferedImage chart = ImageIO.read(new File(benchmark.getReportBaseDir() + "chart.jpg"));
+        assertEquals(2048, chart.getWidth());
+    }
+
+    @Test
+    public void testTimeSeriesConsumerAggregatesIntervals(){
+        TimeSeriesConsumer consumer = new TimeSeriesConsumer("values");
+        consumer.consume(10, 1);
+        consumer.consume(10, 3);
+        consumer.consume(12, 5);
+        consumer.consume(11, 7); // out of order
+        consumer.consume(10, 5);
+
+        TimeSeries series = consumer.getSeries();
+        assertEquals(3, series.getItemCount());
+        assertEquals(3d, series.getValue(0).doubleValue());
+        assertEquals(7d, series.getValue(1).doubleValue());
+        assertEquals(5d, series.getValue(2).doubleValue());
+        assertTrue(series == consumer.getSeries());
+
+        TimeSeriesConsumer seconds = new TimeSeriesConsumer("values", 1000);
+        for(int i = 0; i < 1000000; i++)
+            seconds.consume(i, i % 1000);
+        assertEquals(1000, seconds.getSeries().getItemCount());
+        assertEquals(499.5d, seconds.getSeries().getValue(0).doubleValue());
+    }
+
+    @Test
+    public void testParallelReports() throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        PrimitiveSeries values = new PrimitiveSeries("values");
+        for(int i = 0; i < 10000; i++)
+            values.add(i, i % 100);
+        Benchmark benchmark = new Benchmark("chart")
+                .setReportThreads(4)
+                .setBasePath(new File(System.getProperty("java.io.tmpdir"), "lab-tests" + File.separator + System.nanoTime()).getAbsolutePath());
+
+        final IllegalStateException first = new IllegalStateException("first");
+        try {
+            benchmark.generateReports(
+                    new ChartGenerator().setFileName("one.jpg")
+                            .draw(new SeriesGroup("A").addSeries(values))
+                            .draw(new SeriesGroup("B").addSeries(values))
+                            .draw(new SeriesGroup("C").addSeries(values)),
+                    new IReporter() {
+                        @Override
+                        public void generate(Benchmark benchmark) throws Exception {
+                            Thread.sleep(50);
+                            throw first;
+                        }
+                    },
+                    new ChartGenerator().setFileName("two.jpg").draw(new SeriesGroup("A").addSeries(values)),
+                    new IReporter() {
+                        @Override
+                        public void generate(Benchmark benchmark) throws Exception {
+                            throw new IllegalStateException("second");
+                        }
+                    });
+            fail();
+        } catch (IllegalStateException e) {
+            // the failure of the first failing reporter is reported, all other reporters complete
+            assertTrue(e == first);
+        }
+        assertTrue(new File(benchmark.getReportBaseDir() + "one.jpg").exists());
+        assertTrue(new File(benchmark.getReportBaseDir() + "two.jpg").exists());
+    }
+}
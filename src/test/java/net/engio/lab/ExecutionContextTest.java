@@ -1,10 +1,14 @@
 package net.engio.lab;
 
 import net.engio.pips.lab.Benchmark;
+import net.engio.pips.lab.ContextKey;
 import net.engio.pips.lab.ExecutionContext;
 import net.engio.pips.lab.Executions;
+import net.engio.pips.lab.workload.Workload;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -145,6 +149,116 @@ public class ExecutionContextTest extends UnitTest{
 
         Collection matching = executions.getMatching("root");
         assertEquals(9, matching.size());
+        assertEquals(6, executions.getMatching("root:lvl1").size());
+        assertEquals(3, executions.getAll("root").size());
+        assertEquals(0, executions.getAll("missing").size());
+
+        // the index is rebuilt when contexts are added
+        executions.add(child.getChild());
+        assertEquals(15, executions.getMatching("root").size());
+    }
+
+    @Test
+    public void testContainsKey(){
+        Benchmark benchmark = new Benchmark("test");
+        ExecutionContext ctx = new ExecutionContext(benchmark);
+        ctx.bind("defined", 1);
+        ExecutionContext child = ctx.getChild();
+
+        // the root context has no parent
+        assertTrue(ctx.containsKey("defined"));
+        assertFalse(ctx.containsKey("undefined"));
+        assertTrue(child.containsKey("defined"));
+        assertFalse(child.containsKey("undefined"));
+
+        assertFalse(benchmark.isDefined(Benchmark.Properties.ProgressInterval));
+        assertEquals(1000, benchmark.getProgressInterval());
+        benchmark.setProgressInterval(0);
+        assertTrue(benchmark.isDefined(Benchmark.Properties.ProgressInterval));
+        assertEquals(0, benchmark.getProgressInterval());
+    }
+
+    @Test
+    public void testExecutionsIndexOrder(){
+        ExecutionContext root = new ExecutionContext(new Benchmark("test"));
+        root.bind("value:shared", "root");
+        ExecutionContext first = root.getChild();
+        first.bind("value:b", "first-b");
+        first.bind("value:a", "first-a");
+        ExecutionContext second = root.getChild();
+        second.bind("value:a", "second-a");
+        second.bind("other", "second-other");
+        Workload workload = new Workload("indexed");
+
+        Executions executions = new Executions();
+        executions.addAll(workload, Arrays.asList(first, second));
+
+        // grouped by key in natural order, within a key in the order of the contexts
+        assertEquals(Arrays.asList("first-a", "second-a", "first-b", "root", "root"),
+                new ArrayList<Object>(executions.getMatching("value:")));
+        assertEquals(Arrays.asList("first-a", "second-a"), new ArrayList<Object>(executions.getAll(workload, "value:a")));
+        assertEquals(Arrays.asList("second-other"), new ArrayList<Object>(executions.getMatching(workload, "oth")));
+        assertEquals(0, executions.getAll(new Workload("unknown"), "value:a").size());
+        assertEquals(Arrays.asList(first, second), executions.getContexts(workload));
+
+        // views of the index are replaced when contexts are added
+        Collection<Object> before = executions.getAll("value:a");
+        ExecutionContext third = root.getChild();
+        third.bind("value:a", "third-a");
+        executions.add(third);
+        assertEquals(2, before.size());
+        assertEquals(Arrays.asList("first-a", "second-a", "third-a"), new ArrayList<Object>(executions.getAll("value:a")));
+        // contexts added without a workload are not part of the workload index
+        assertEquals(2, executions.getAll(workload, "value:a").size());
+    }
+
+    @Test
+    public void testLookupsSeeLaterBindings(){
+        ContextKey<Integer> rounds = ContextKey.of("rounds");
+        ExecutionContext ctx = new ExecutionContext(new Benchmark("test"));
+        ExecutionContext child = ctx.getChild();
+        assertNull(child.get(rounds));
+        assertFalse(child.containsKey("rounds"));
+
+        // binding in an ancestor after a lookup is visible to the child
+        ctx.bind(rounds, 10);
+        Integer value = child.get(rounds);
+        assertEquals(10, value);
+
+        // the child overrides its ancestors
+        child.bind(rounds, 20);
+        assertEquals(20, child.get("rounds"));
+        assertEquals(10, ctx.get("rounds"));
+        assertEquals(2, child.getAll("rounds").size());
+
+        // unbinding reveals the ancestor's value again
+        child.bind(rounds, null);
+        assertEquals(10, child.get("rounds"));
+    }
+
+    @Test
+    public void testBindingsAreScopedToDescendants(){
+        ExecutionContext root = new ExecutionContext(new Benchmark("test"));
+        ExecutionContext workload = root.getChild();
+        ExecutionContext task1 = workload.getChild();
+        ExecutionContext task2 = workload.getChild();
+        root.bind("shared", 1);
+        assertEquals(1, task1.get("shared"));
+        assertEquals(1, task2.get("shared"));
+
+        // a binding of one task is not visible to its siblings or ancestors
+        task1.bind("local", "task1");
+        assertEquals("task1", task1.get("local"));
+        assertNull(task2.get("local"));
+        assertNull(workload.get("local"));
+
+        // rebinding in an ancestor reaches all descendants
+        root.bind("shared", 2);
+        assertEquals(2, task1.get("shared"));
+        assertEquals(2, task2.get("shared"));
+        workload.bind("shared", 3);
+        assertEquals(3, task1.get("shared"));
+        assertEquals(2, root.get("shared"));
     }
 
 }
@@ -1,16 +1,37 @@
 package net.engio.lab;
 
+import net.engio.pips.data.DataCollector;
+import net.engio.pips.data.DataPoint;
+import net.engio.pips.data.utils.ExecutionTimer;
 import net.engio.pips.lab.Benchmark;
+import net.engio.pips.lab.Executions;
 import net.engio.pips.lab.ExecutionContext;
 import net.engio.pips.lab.LabException;
+import net.engio.pips.lab.IBenchmarkFactory;
 import net.engio.pips.lab.Laboratory;
+import net.engio.pips.lab.LoadCurve;
+import net.engio.pips.lab.LoadSearch;
+import net.engio.pips.lab.metrics.LatencyHistogram;
+import net.engio.pips.lab.metrics.LatencyRecorder;
+import net.engio.pips.lab.metrics.LatencyTimer;
+import net.engio.pips.lab.store.ISeries;
 import net.engio.pips.lab.workload.*;
 import org.junit.Test;
 
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author bennidi
@@ -337,5 +358,669 @@ public class LaboratoryTest extends UnitTest{
         assertTrue(finished.get());
     }
 
+    @Test
+    public void testOpenLoopWorkload() throws Exception {
+        Workload openLoop = new Workload("Open loop workload")
+                .setParallelTasks(2)
+                .setITaskFactory(NoOperation)
+                .arrivals().constant(1000)
+                .duration().repetitions(200)
+                .starts().immediately();
+
+        Benchmark benchmark = new Benchmark("test").addWorkload(openLoop);
+        Laboratory lab  = new Laboratory();
+        lab.run(benchmark);
+
+        // each of the two tasks issues 500 ops/s -> 200 operations take at least ~400ms
+        assertTrue(openLoop.getExecutionTime() >= 390);
+        Collection<LatencyRecorder> latencies = benchmark.getExecutions().getAll(openLoop.getLatencyId());
+        assertEquals(2, latencies.size());
+        for(LatencyRecorder recorder : latencies)
+            assertEquals(200L, recorder.getCount());
+        assertEquals(400L, benchmark.getExecutions().getLatencies(openLoop, openLoop.getLatencyId()).getCount());
+    }
+
+    @Test
+    public void testArrivalsOfUnitsAreStaggered() throws Exception {
+        ArrivalRate rate = new ArrivalRate(1000, ArrivalRate.Distribution.Constant);
+        long start = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        long[] arrivals = new long[4 * 5];
+        for(int unit = 0; unit < 4; unit++){
+            ArrivalRate.Schedule schedule = rate.createSchedule(4, unit, start);
+            for(int i = 0; i < 5; i++)
+                arrivals[unit * 5 + i] = schedule.next();
+        }
+        Arrays.sort(arrivals);
+        // the aggregate rate of 1000 ops/s is evenly spaced: one arrival per millisecond
+        for(int i = 1; i < arrivals.length; i++)
+            assertTrue(Math.abs(arrivals[i] - arrivals[i - 1] - 1000000) <= 1);
+        // a unit that joins late skips the passed arrivals of its lane (start + 1ms + k * 4ms)
+        start = System.nanoTime() - 2500000;
+        long next = rate.createSchedule(4, 1, start).next();
+        assertTrue(next > start + 2500000);
+        long lane = (next - start - 1000000) % 4000000;
+        assertTrue(lane <= 1 || lane >= 3999999);
+    }
+
+    @Test
+    public void testExecutionTimerRecordsHistogram() throws Exception {
+        ITaskFactory timed = new ITaskFactory() {
+            @Override
+            public ITask create(ExecutionContext context) {
+                final ExecutionTimer timer = context.createExecutionTimer("execution");
+                return new ITask() {
+                    @Override
+                    public void run(ExecutionContext context) throws Exception {
+                        timer.begin();
+                        Thread.sleep(1);
+                        timer.end();
+                    }
+                };
+            }
+        };
+        Workload histogramOnly = new Workload("Histogram only")
+                .setParallelTasks(2)
+                .setITaskFactory(timed)
+                .duration().repetitions(20)
+                .starts().immediately();
+        Benchmark benchmark = new Benchmark("test").addWorkload(histogramOnly);
+        new Laboratory().run(benchmark);
+
+        Executions executions = benchmark.getExecutions();
+        LatencyHistogram latencies = executions.getLatencies(histogramOnly, "execution");
+        assertEquals(40L, latencies.getCount());
+        assertTrue(latencies.getValueAtPercentile(50) >= TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(0, executions.getAll(ExecutionContext.getSamplesId("execution")).size());
+
+        Workload sampled = new Workload("Sampled")
+                .setParallelTasks(2)
+                .setITaskFactory(timed)
+                .duration().repetitions(20)
+                .starts().immediately();
+        benchmark = new Benchmark("test").setSampleExecutionTimers(true).setSampleInterval(1).addWorkload(sampled);
+        new Laboratory().run(benchmark);
+
+        executions = benchmark.getExecutions();
+        assertEquals(40L, executions.getLatencies(sampled, "execution").getCount());
+        Collection<DataCollector<Long>> samples = executions.getAll(sampled, ExecutionContext.getSamplesId("execution"));
+        assertEquals(2, samples.size());
+        for(DataCollector<Long> collector : samples)
+            assertTrue(collector.size() > 0);
+    }
+
+    @Test
+    public void testThroughputCounters() throws Exception {
+        Workload workload = new Workload("Failing every other round")
+                .setParallelTasks(4)
+                .setITaskFactory(new ITaskFactory() {
+                    @Override
+                    public ITask create(ExecutionContext context) {
+                        return new ITask() {
+                            private int round = 0;
+                            @Override
+                            public void run(ExecutionContext context) throws Exception {
+                                Thread.sleep(1);
+                                if (++round % 2 == 0)
+                                    throw new IllegalStateException("Expected failure");
+                            }
+                        };
+                    }
+                })
+                .duration().repetitions(100)
+                .starts().immediately();
+
+        Benchmark benchmark = new Benchmark("test").setSampleInterval(20).addWorkload(workload);
+        Laboratory lab  = new Laboratory();
+        lab.run(benchmark);
+
+        Executions executions = benchmark.getExecutions();
+        assertEquals(200L, executions.getCompleted(workload));
+        assertEquals(200L, executions.getFailed(workload));
+        assertTrue(executions.getThroughput(workload).size() > 0);
+        assertEquals(executions.getThroughput(workload).size(), executions.getFailures(workload).size());
+    }
+
+    @Test
+    public void testSeriesFollowWorkloadOrder() throws Exception {
+        Benchmark benchmark = new Benchmark("ordered");
+        List<String> expected = new ArrayList<String>();
+        for(int i = 0; i < 8; i++){
+            benchmark.addWorkload(new Workload("W" + i)
+                    .setParallelTasks(1)
+                    .setITaskFactory(NoOperation)
+                    .duration().repetitions(1)
+                    .starts().immediately());
+            expected.add("W" + i + ":throughput");
+            expected.add("W" + i + ":failures");
+        }
+        new Laboratory().run(benchmark);
+
+        List<String> ids = new ArrayList<String>();
+        for(ISeries series : benchmark.getExecutions().getSeries())
+            ids.add(series.getId());
+        assertEquals(expected, ids);
+    }
+
+    private static ITaskFactory counting(final AtomicInteger counter, final boolean fail){
+        return new ITaskFactory() {
+            @Override
+            public ITask create(ExecutionContext context) {
+                return new ITask() {
+                    @Override
+                    public void run(ExecutionContext context) throws Exception {
+                        counter.incrementAndGet();
+                        if(fail)
+                            throw new IllegalStateException("Expected failure");
+                    }
+                };
+            }
+        };
+    }
+
+    @Test
+    public void testTaskMix() throws Exception {
+        AtomicInteger gets = new AtomicInteger(0), puts = new AtomicInteger(0), scans = new AtomicInteger(0);
+        Workload workload = new Workload("Mixed")
+                .setParallelTasks(4)
+                .setITaskFactory(new TaskMix()
+                        .setSeed(42)
+                        .add("get", 90, counting(gets, false))
+                        .add("put", 9, counting(puts, false))
+                        .add("scan", 1, counting(scans, true)))
+                .duration().repetitions(5000)
+                .starts().immediately();
+
+        Benchmark benchmark = new Benchmark("test").setSampleInterval(50).addWorkload(workload);
+        Laboratory lab  = new Laboratory();
+        lab.run(benchmark);
+
+        Executions executions = benchmark.getExecutions();
+        assertEquals(20000, gets.get() + puts.get() + scans.get());
+        assertTrue(gets.get() > 17000 && gets.get() < 19000);
+        assertTrue(scans.get() > 100 && scans.get() < 400);
+        assertEquals((long) gets.get(), executions.getCompleted(workload, "get"));
+        assertEquals((long) puts.get(), executions.getCompleted(workload, "put"));
+        assertEquals(0L, executions.getCompleted(workload, "scan"));
+        assertEquals((long) scans.get(), executions.getFailed(workload, "scan"));
+        assertEquals((long) scans.get(), executions.getFailed(workload));
+        assertEquals((long) gets.get(), executions.getLatencies(workload, TaskMix.getLatencyId("get")).getCount());
+        assertEquals((long) puts.get(), executions.getLatencies(TaskMix.getLatencyId("put")).getCount());
+        assertTrue(executions.getThroughput(workload, "get").size() > 0);
+    }
+
+    @Test
+    public void testBatchTask() throws Exception {
+        final AtomicLong operations = new AtomicLong(0);
+        Workload workload = new Workload("Batched")
+                .setParallelTasks(2)
+                .setBatchSize(1000)
+                .setITaskFactory(new ITaskFactory() {
+                    @Override
+                    public ITask create(ExecutionContext context) {
+                        return new IBatchTask() {
+                            @Override
+                            public void run(ExecutionContext context, int batchSize) throws Exception {
+                                long sum = 0;
+                                for(int i = 0; i < batchSize; i++)
+                                    sum += i;
+                                operations.addAndGet(batchSize);
+                            }
+
+                            @Override
+                            public void run(ExecutionContext context) throws Exception {
+                                run(context, 1);
+                            }
+                        };
+                    }
+                })
+                .duration().repetitions(10)
+                .starts().immediately();
+
+        Benchmark benchmark = new Benchmark("test").addWorkload(workload);
+        Laboratory lab  = new Laboratory();
+        lab.run(benchmark);
+
+        assertEquals(20000L, operations.get());
+        assertEquals(20000L, benchmark.getExecutions().getCompleted(workload));
+        // one latency (per operation) is recorded per batch
+        assertEquals(20L, benchmark.getExecutions().getLatencies(workload, workload.getLatencyId()).getCount());
+    }
+
+    @Test
+    public void testVirtualThreadExecutor() throws Exception {
+        final AtomicInteger counter = new AtomicInteger(0);
+        Workload workload = new Workload("Virtual threads")
+                .setParallelTasks(500)
+                .setExecutorFactory(ExecutorFactories.VirtualThreads) // falls back to thread pool on older runtimes
+                .setITaskFactory(new ITaskFactory() {
+                    @Override
+                    public ITask create(ExecutionContext context) {
+                        return new ITask() {
+                            @Override
+                            public void run(ExecutionContext context) throws Exception {
+                                counter.incrementAndGet();
+                                Thread.sleep(1);
+                            }
+                        };
+                    }
+                })
+                .duration().repetitions(10)
+                .starts().immediately();
+
+        Laboratory lab  = new Laboratory();
+        lab.run(new Benchmark("test").addWorkload(workload));
+
+        assertEquals(5000, counter.get());
+    }
+
+    @Test
+    public void testWarmupIsRecordedSeparately() throws Exception {
+        final AtomicInteger warmupCompleted = new AtomicInteger(0);
+        final AtomicInteger measured = new AtomicInteger(0);
+        Workload workload = new Workload("Warmup")
+                .setParallelTasks(2)
+                .setITaskFactory(new ITaskFactory() {
+                    @Override
+                    public ITask create(ExecutionContext context) {
+                        final LatencyTimer timer = context.createLatencyTimer("timer");
+                        return new ITask() {
+                            @Override
+                            public void run(ExecutionContext context) throws Exception {
+                                timer.begin();
+                                if(context.get(ExecutionPhase.Key) == ExecutionPhase.Measurement)
+                                    measured.incrementAndGet();
+                                timer.end();
+                            }
+                        };
+                    }
+                })
+                .handle(ExecutionEvent.WarmupCompletion, new ExecutionHandler() {
+                    @Override
+                    public void handle(ExecutionContext context) {
+                        warmupCompleted.incrementAndGet();
+                    }
+                })
+                .warmup().repetitions(50)
+                .duration().repetitions(100)
+                .starts().immediately();
+
+        Benchmark benchmark = new Benchmark("test").addWorkload(workload);
+        Laboratory lab  = new Laboratory();
+        lab.run(benchmark);
+
+        assertEquals(1, warmupCompleted.get());
+        assertEquals(200, measured.get());
+        assertEquals(200L, benchmark.getExecutions().getLatencies("timer").getCount());
+        assertEquals(100L, benchmark.getExecutions().getLatencies(Warmup.getWarmupId("timer")).getCount());
+    }
+
+    @Test
+    public void testMonitoringAndAbort() throws Exception {
+        final AtomicInteger skipped = new AtomicInteger(0);
+        final Workload endless = new Workload("Endless")
+                .setParallelTasks(2)
+                .setITaskFactory(NoOperation)
+                .arrivals().constant(2000)
+                .duration().repetitions(Integer.MAX_VALUE)
+                .starts().immediately();
+        Workload never = new Workload("Never started")
+                .setParallelTasks(1)
+                .setITaskFactory(counting(skipped, false))
+                .duration().repetitions(1)
+                .starts().after(endless);
+
+        final Benchmark benchmark = new Benchmark("monitored").addWorkload(endless, never);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName benchmarkMonitor = new ObjectName(Laboratory.MonitoringDomain + ":type=Benchmark,name=" + ObjectName.quote("monitored"));
+        final ObjectName workloadMonitor = new ObjectName(Laboratory.MonitoringDomain + ":type=Workload,benchmark="
+                + ObjectName.quote("monitored") + ",name=" + ObjectName.quote("Endless"));
+        final AtomicLong observed = new AtomicLong(0);
+        final AtomicInteger activeTasks = new AtomicInteger(0);
+        Thread watcher = new Thread(){
+            @Override
+            public void run() {
+                try {
+                    while (!server.isRegistered(workloadMonitor)
+                            || (Long) server.getAttribute(workloadMonitor, "LatencyCount") < 100)
+                        Thread.sleep(10);
+                    activeTasks.set((Integer) server.getAttribute(workloadMonitor, "ActiveTasks"));
+                    observed.set((Long) server.getAttribute(workloadMonitor, "CompletedOperations"));
+                    server.invoke(benchmarkMonitor, "abort", new Object[0], new String[0]);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        watcher.start();
+        new Laboratory().setMonitoring(true).run(benchmark);
+        watcher.join();
+
+        assertEquals(2, activeTasks.get());
+        assertTrue(observed.get() >= 100);
+        assertTrue(benchmark.getExecutions().getCompleted(endless) >= observed.get());
+        assertEquals(0, skipped.get());
+        assertFalse(server.isRegistered(benchmarkMonitor));
+        assertFalse(server.isRegistered(workloadMonitor));
+    }
+
+    @Test
+    public void testMonitorMergesTaskLatenciesOnly() throws Exception {
+        final LatencyHistogram shared = new LatencyHistogram();
+        for(int i = 0; i < 1000; i++)
+            shared.record(1000);
+        Workload endless = new Workload("Shared latencies")
+                .setParallelTasks(2)
+                .setITaskFactory(new ITaskFactory() {
+                    @Override
+                    public ITask create(ExecutionContext context) {
+                        // binds an empty histogram to each task
+                        context.createLatencyTimer("timer");
+                        return NoOperation.create(context);
+                    }
+                })
+                .handle(ExecutionEvent.WorkloadInitialization, new ExecutionHandler() {
+                    @Override
+                    public void handle(ExecutionContext context) {
+                        // visible to the tasks through their parent context
+                        context.bind("timer", shared);
+                    }
+                })
+                .duration().repetitions(Integer.MAX_VALUE)
+                .starts().immediately();
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName benchmarkMonitor = new ObjectName(Laboratory.MonitoringDomain + ":type=Benchmark,name=" + ObjectName.quote("shared"));
+        final ObjectName workloadMonitor = new ObjectName(Laboratory.MonitoringDomain + ":type=Workload,benchmark="
+                + ObjectName.quote("shared") + ",name=" + ObjectName.quote("Shared latencies"));
+        final AtomicReference<String> latencies = new AtomicReference<String>();
+        Thread watcher = new Thread(){
+            @Override
+            public void run() {
+                try {
+                    while (!server.isRegistered(workloadMonitor)
+                            || (Long) server.getAttribute(workloadMonitor, "CompletedOperations") < 100)
+                        Thread.sleep(10);
+                    latencies.set((String) server.invoke(workloadMonitor, "latencies",
+                            new Object[]{"timer"}, new String[]{String.class.getName()}));
+                    server.invoke(benchmarkMonitor, "abort", new Object[0], new String[0]);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        watcher.start();
+        new Laboratory().setMonitoring(true).run(new Benchmark("shared").addWorkload(endless));
+        watcher.join();
+
+        // the histogram of the workload context must not be counted once per task
+        assertTrue(latencies.get().startsWith("count=0,"));
+    }
+
+    @Test
+    public void testMonitorLatencyIdOfClosedLoop() throws Exception {
+        Workload endless = new Workload("Closed loop")
+                .setParallelTasks(2)
+                .setITaskFactory(new ITaskFactory() {
+                    @Override
+                    public ITask create(ExecutionContext context) {
+                        final LatencyTimer timer = context.createLatencyTimer("timer");
+                        return new ITask() {
+                            @Override
+                            public void run(ExecutionContext context) throws Exception {
+                                timer.begin();
+                                timer.end();
+                            }
+                        };
+                    }
+                })
+                .duration().repetitions(Integer.MAX_VALUE)
+                .starts().immediately();
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName benchmarkMonitor = new ObjectName(Laboratory.MonitoringDomain + ":type=Benchmark,name=" + ObjectName.quote("closed"));
+        final ObjectName workloadMonitor = new ObjectName(Laboratory.MonitoringDomain + ":type=Workload,benchmark="
+                + ObjectName.quote("closed") + ",name=" + ObjectName.quote("Closed loop"));
+        final AtomicLong unbound = new AtomicLong(0);
+        final AtomicLong observed = new AtomicLong(0);
+        Thread watcher = new Thread(){
+            @Override
+            public void run() {
+                try {
+                    while (!server.isRegistered(workloadMonitor)
+                            || (Long) server.getAttribute(workloadMonitor, "CompletedOperations") < 100)
+                        Thread.sleep(10);
+                    // nothing is bound under the default id of a closed loop workload
+                    unbound.set((Long) server.getAttribute(workloadMonitor, "LatencyP99"));
+                    server.setAttribute(workloadMonitor, new Attribute("LatencyId", "timer"));
+                    observed.set((Long) server.getAttribute(workloadMonitor, "LatencyCount"));
+                    server.invoke(benchmarkMonitor, "abort", new Object[0], new String[0]);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        watcher.start();
+        new Laboratory().setMonitoring(true).run(new Benchmark("closed").addWorkload(endless));
+        watcher.join();
+
+        assertEquals(-1L, unbound.get());
+        assertTrue(observed.get() >= 100);
+    }
+
+    @Test
+    public void testLoadSearch() throws Exception {
+        // the latency grows with the load: each round records as many milliseconds as the load
+        LoadSearch search = new LoadSearch("Growing latency", new IBenchmarkFactory() {
+            @Override
+            public Benchmark create(final int load) {
+                Workload workload = new Workload("Growing latency")
+                        .setParallelTasks(1)
+                        .setITaskFactory(new ITaskFactory() {
+                            @Override
+                            public ITask create(ExecutionContext context) {
+                                final LatencyRecorder latencies = context.createLatencyTimer("timer").getRecorder();
+                                return new ITask() {
+                                    @Override
+                                    public void run(ExecutionContext context) throws Exception {
+                                        // synthetic latencies do not depend on the scheduling of the test machine
+                                        latencies.record(TimeUnit.MILLISECONDS.toNanos(load));
+                                    }
+                                };
+                            }
+                        })
+                        .duration().repetitions(5)
+                        .starts().immediately();
+                return new Benchmark("Load " + load).addWorkload(workload);
+            }
+        }).setLatencyId("timer")
+          .setObjective(50, 9500, TimeUnit.MICROSECONDS)
+          .setMaxLoad(64);
+
+        LoadCurve curve = new Laboratory().search(search);
+
+        List<Integer> loads = new ArrayList<Integer>();
+        for(LoadCurve.Point point : curve.getPoints()){
+            assertEquals(point.getLoad() <= 9, point.isWithinObjective());
+            loads.add(point.getLoad());
+        }
+        // ramped up to 16, then searched between 8 and 16
+        assertEquals(Arrays.asList(1, 2, 4, 8, 9, 10, 12, 16), loads);
+        assertEquals(9, curve.getMaxSustainableLoad());
+        assertFalse(curve.getPoints().get(curve.getPoints().size() - 1).isWithinObjective());
+        assertEquals((long) curve.getPoints().size(), curve.getLatencyOverThroughput().size());
+    }
+
+    @Test
+    public void testLoadSearchExcludesWarmup() throws Exception {
+        final List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        // a slow warmup followed by a fast measurement
+        LoadSearch search = new LoadSearch("Slow warmup", new IBenchmarkFactory() {
+            @Override
+            public Benchmark create(int load) {
+                Workload workload = new Workload("Slow warmup")
+                        .setParallelTasks(load)
+                        .setITaskFactory(new ITaskFactory() {
+                            @Override
+                            public ITask create(ExecutionContext context) {
+                                final LatencyTimer timer = context.createLatencyTimer("timer");
+                                return new ITask() {
+                                    @Override
+                                    public void run(ExecutionContext context) throws Exception {
+                                        timer.begin();
+                                        if(context.isWarmup())
+                                            Thread.sleep(5);
+                                        timer.end();
+                                    }
+                                };
+                            }
+                        })
+                        .warmup().repetitions(20)
+                        .duration().repetitions(200)
+                        .starts().immediately();
+                Benchmark benchmark = new Benchmark("Load " + load).addWorkload(workload);
+                benchmarks.add(benchmark);
+                return benchmark;
+            }
+        }).setLatencyId("timer")
+          .setObjective(99, 1, TimeUnit.SECONDS)
+          .setMaxLoad(1);
+
+        LoadCurve curve = new Laboratory().search(search);
+
+        assertEquals(1, curve.getPoints().size());
+        Workload workload = benchmarks.get(0).getWorkloads().get(0);
+        // the 100ms of warmup would dominate a throughput over the whole execution time
+        double overall = 200 * 1000d / workload.getExecutionTime();
+        assertTrue(curve.getPoints().get(0).getThroughput() > 2 * overall);
+    }
+
+    @Test(expected = LabException.class)
+    public void testLoadSearchWithoutObjective() throws Exception {
+        new Laboratory().search(new LoadSearch("any", new IBenchmarkFactory() {
+            @Override
+            public Benchmark create(int load) {
+                return new Benchmark("any");
+            }
+        }));
+    }
+
+    @Test
+    public void testRunReturnsWhenWorkloadsFinish() throws Exception {
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger rounds = new AtomicInteger(0);
+        ITaskFactory sleeping = new ITaskFactory() {
+            @Override
+            public ITask create(ExecutionContext context) {
+                return new ITask() {
+                    @Override
+                    public void run(ExecutionContext context) throws Exception {
+                        running.incrementAndGet();
+                        try {
+                            Thread.sleep(5);
+                            rounds.incrementAndGet();
+                        } finally {
+                            // rounds of a time based duration end by interruption
+                            running.decrementAndGet();
+                        }
+                    }
+                };
+            }
+        };
+        Workload first = new Workload("First")
+                .setParallelTasks(4)
+                .setITaskFactory(sleeping)
+                .duration().repetitions(10)
+                .starts().immediately();
+        // stopped by its duration while its tasks are in the middle of a round
+        Workload second = new Workload("Second")
+                .setParallelTasks(4)
+                .setITaskFactory(sleeping)
+                .duration().lasts(200, TimeUnit.MILLISECONDS)
+                .starts().after(first);
+
+        long start = System.currentTimeMillis();
+        new Laboratory().run(new Benchmark("prompt").addWorkload(first, second));
+        long elapsed = System.currentTimeMillis() - start;
+
+        // completion is signalled, not polled once per second per workload
+        assertTrue("Run took " + elapsed + "ms", elapsed < 1000);
+        // all tasks have left their rounds when the run returns
+        assertEquals(0, running.get());
+        int completed = rounds.get();
+        Thread.sleep(50);
+        assertEquals(completed, rounds.get());
+    }
+
+    @Test
+    public void testNoLoggingPerRound() throws Exception {
+        Workload quiet = new Workload("Quiet")
+                .setParallelTasks(2)
+                .setITaskFactory(NoOperation)
+                .duration().repetitions(50)
+                .starts().immediately();
+        Workload traced = new Workload("Traced")
+                .setParallelTasks(1)
+                .setITaskFactory(NoOperation)
+                .setTraceRounds(true)
+                .duration().repetitions(50)
+                .starts().after(quiet);
+
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        Benchmark benchmark = new Benchmark("logging")
+                .setLogStream(log)
+                .setProgressInterval(0)
+                .addWorkload(quiet, traced);
+        new Laboratory().run(benchmark);
+
+        String output = log.toString();
+        assertTrue(output.contains("Finished workload: " + quiet));
+        assertFalse(output.contains("Quiet[1]->"));
+        assertFalse(output.contains("Progress "));
+        // rounds are only logged when tracing
+        assertTrue(output.contains("Traced[1]->50"));
+    }
+
+    @Test
+    public void testWarmupIsNotMeasured() throws Exception {
+        Workload workload = new Workload("Warmup excluded")
+                .setParallelTasks(2)
+                .setITaskFactory(new ITaskFactory() {
+                    @Override
+                    public ITask create(ExecutionContext context) {
+                        final DataCollector<Long> values = context.createLocalCollector("values");
+                        return new ITask() {
+                            private long round = 0;
+                            @Override
+                            public void run(ExecutionContext context) throws Exception {
+                                values.receive(new DataPoint<Long>(round, round++));
+                            }
+                        };
+                    }
+                })
+                .warmup().repetitions(50)
+                .duration().repetitions(100)
+                .starts().immediately();
+
+        Benchmark benchmark = new Benchmark("test").addWorkload(workload);
+        new Laboratory().run(benchmark);
+
+        Executions executions = benchmark.getExecutions();
+        assertEquals(200L, executions.getCompleted(workload));
+        assertEquals(100L, executions.getWarmupCompleted(workload));
+        Collection<DataCollector<Long>> collectors = executions.getAll(workload, "values");
+        assertEquals(2, collectors.size());
+        for(DataCollector<Long> values : collectors){
+            assertEquals(100, values.size());
+            // the first measured datapoint follows the 50 warmup rounds
+            assertEquals(50L, values.getDatapoints().get(0).getValue());
+        }
+        // the datapoints of the warmup are kept separately
+        Collection<DataCollector<Long>> warmup = executions.getAll(workload, Warmup.getWarmupId("values"));
+        assertEquals(2, warmup.size());
+        for(DataCollector<Long> values : warmup){
+            assertEquals(50, values.size());
+            assertEquals(0L, values.getDatapoints().get(0).getValue());
+        }
+    }
 
 }
@@ -0,0 +1,73 @@
+package net.engio.lab;
+
+import net.engio.pips.lab.metrics.LatencyHistogram;
+import org.junit.Test;
+
+/**
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class LatencyHistogramTest extends UnitTest{
+
+    // the maximum relative error of the default precision
+    private static final double Precision = 1d / 128;
+
+    private void assertWithinPrecision(long expected, long actual){
+        assertTrue("expected " + expected + " but was " + actual,
+                Math.abs(expected - actual) <= Math.max(1, expected * Precision));
+    }
+
+    @Test
+    public void testSmallValuesAreExact(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 1; i <= 100; i++)
+            histogram.record(i);
+
+        assertEquals(100L, histogram.getCount());
+        assertEquals(1L, histogram.getMin());
+        assertEquals(100L, histogram.getMax());
+        assertEquals(50L, histogram.getValueAtPercentile(50));
+        assertEquals(99L, histogram.getValueAtPercentile(99));
+        assertEquals(100L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testLargeValuesWithinPrecision(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long i = 1; i <= 100000; i++)
+            histogram.record(i * 1000);
+
+        assertWithinPrecision(50000000L, histogram.getValueAtPercentile(50));
+        assertWithinPrecision(90000000L, histogram.getValueAtPercentile(90));
+        assertWithinPrecision(99900000L, histogram.getValueAtPercentile(99.9));
+        assertEquals(100000000L, histogram.getMax());
+        assertWithinPrecision(50000500L, (long)histogram.getMean());
+
+        // values close to Long.MAX_VALUE must not overflow
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testMerge(){
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for(int i = 0; i < 1000; i++){
+            first.record(getRandom().nextInt(1000000));
+            second.record(2000000 + getRandom().nextInt(1000000));
+        }
+        LatencyHistogram merged = first.copy().merge(second);
+
+        assertEquals(2000L, merged.getCount());
+        assertEquals(first.getMin(), merged.getMin());
+        assertEquals(second.getMax(), merged.getMax());
+        assertTrue(merged.getValueAtPercentile(50) <= first.getMax() * (1 + Precision));
+        assertTrue(merged.getValueAtPercentile(51) >= second.getMin());
+
+        first.reset();
+        assertEquals(0L, first.getCount());
+        assertEquals(0L, first.getValueAtPercentile(99));
+    }
+
+}
@@ -0,0 +1,226 @@
+package net.engio.lab;
+
+import net.engio.pips.lab.common.DoubleGenerator;
+import net.engio.pips.lab.common.DoubleRange;
+import net.engio.pips.lab.common.KeyDistribution;
+import net.engio.pips.lab.common.LongGenerator;
+import net.engio.pips.lab.common.LongRange;
+import net.engio.pips.lab.common.MappedLongRange;
+import net.engio.pips.lab.common.Range;
+import net.engio.pips.lab.common.SplitMix64;
+import net.engio.pips.lab.common.ValueGenerator;
+import net.engio.pips.lab.common.ValueGeneratorFactory;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class RangeTest extends UnitTest{
+
+    private static class Counting implements LongGenerator{
+        private long next = 0;
+        @Override
+        public long next() {
+            return next++;
+        }
+    }
+
+    private static Range<Integer> numbers(int size){
+        return new Range<Integer>(new ValueGenerator<Integer>() {
+            private int next = 0;
+            @Override
+            public Integer next() {
+                return next++;
+            }
+        }, size);
+    }
+
+    @Test
+    public void testPartitionIsDisjointAndComplete(){
+        Range<Integer> range = numbers(1000);
+        List<Range.Cursor<Integer>> slices = range.partition(7, 42);
+        Set<Integer> seen = new HashSet<Integer>();
+        int total = 0;
+        for(Range.Cursor<Integer> slice : slices){
+            total += slice.size();
+            for(int i = 0; i < slice.size(); i++)
+                assertTrue(seen.add(slice.getNext()));
+        }
+        assertEquals(1000, total);
+        assertEquals(1000, seen.size());
+    }
+
+    @Test
+    public void testCursorWrapsAround(){
+        Range.Cursor<Integer> slice = numbers(10).slice(1, 2, 0);
+        assertEquals(5, slice.getNext());
+        for(int i = 0; i < 4; i++)
+            slice.getNext();
+        assertEquals(5, slice.getNext());
+    }
+
+    @Test
+    public void testSeededCursorsAreReproducible(){
+        Range<Integer> range = numbers(1000);
+        Range.Cursor<Integer> first = range.slice(3, 4, 42);
+        Range.Cursor<Integer> second = range.slice(3, 4, 42);
+        Range.Cursor<Integer> other = range.slice(2, 4, 42);
+        boolean differs = false;
+        for(int i = 0; i < 100; i++){
+            Integer element = first.getRandomElement();
+            assertEquals(element, second.getRandomElement());
+            assertTrue(element >= 750 && element < 1000);
+            differs |= other.getRandomElement() + 250 != element;
+        }
+        assertTrue(differs);
+        assertEquals(range.shuffle(7).getElement(0), range.shuffle(7).getElement(0));
+    }
+
+    @Test
+    public void testPrimitiveRanges(){
+        LongGenerator squares = new LongGenerator() {
+            private long next = 0;
+            @Override
+            public long next() {
+                return next * next++;
+            }
+        };
+        LongRange onHeap = new LongRange(squares, 1000);
+        assertFalse(onHeap.isOffHeap());
+        assertEquals(998001L, onHeap.getElement(999));
+        long sum = 0;
+        for(LongRange.Cursor slice : onHeap.partition(3, 0))
+            for(int i = 0; i < slice.size(); i++)
+                sum += slice.getNext();
+        assertEquals(332833500L, sum);
+
+        DoubleRange offHeap = DoubleRange.offHeap(new DoubleGenerator() {
+            private double next = 0;
+            @Override
+            public double next() {
+                return next++ / 2;
+            }
+        }, 1000);
+        assertTrue(offHeap.isOffHeap());
+        assertEquals(1000, offHeap.size());
+        DoubleRange.Cursor cursor = offHeap.slice(1, 2, 0);
+        assertEquals(250d, cursor.getNext());
+        for(int i = 0; i < 100; i++){
+            double value = cursor.getRandomElement();
+            assertTrue(value >= 250d && value < 500d);
+        }
+    }
+
+    @Test
+    public void testMappedRangeIsGeneratedOnce(){
+        File file = new File(System.getProperty("java.io.tmpdir"), "lab-tests" + File.separator + System.nanoTime() + File.separator + "keys.range");
+        Counting generator = new Counting();
+        MappedLongRange range = MappedLongRange.open(file, 100000, generator);
+        assertEquals(100000L, generator.next);
+        assertEquals(100000L, range.size());
+        assertEquals(99999L, range.getElement(99999));
+
+        // same size -> the existing file is mapped without generating any value
+        Counting unused = new Counting();
+        MappedLongRange reused = MappedLongRange.open(file, 100000, unused);
+        assertEquals(0L, unused.next);
+        MappedLongRange.Cursor cursor = reused.slice(1, 4, 0);
+        assertEquals(25000L, cursor.getNext());
+        for(int i = 0; i < 100; i++){
+            long value = cursor.getRandomElement();
+            assertTrue(value >= 25000 && value < 50000);
+        }
+        assertEquals(100000L, MappedLongRange.open(file).size());
+
+        // different size -> the file is generated again
+        Counting regenerated = new Counting();
+        assertEquals(10L, MappedLongRange.open(file, 10, regenerated).size());
+        assertEquals(10L, regenerated.next);
+    }
+
+    // each generator derives its values from the index such that the range does not depend on the partitioning
+    private static class IndexFactory implements ValueGeneratorFactory<Integer>{
+        private final AtomicInteger generated = new AtomicInteger(0);
+        @Override
+        public ValueGenerator<Integer> create(final int first) {
+            return new ValueGenerator<Integer>() {
+                private int next = first;
+                @Override
+                public Integer next() {
+                    generated.incrementAndGet();
+                    return next++;
+                }
+            };
+        }
+    }
+
+    @Test
+    public void testParallelGeneration(){
+        IndexFactory factory = new IndexFactory();
+        Range<Integer> range = Range.parallel(factory, 100003);
+        assertEquals(100003, factory.generated.get());
+        for(int i = 0; i < range.size(); i++)
+            assertEquals(i, range.getElement(i));
+    }
+
+    @Test
+    public void testLazyGeneration(){
+        IndexFactory factory = new IndexFactory();
+        Range<Integer> range = Range.lazy(factory, 100000);
+        assertEquals(0, factory.generated.get());
+        assertEquals(50000, range.getElement(50000));
+        assertTrue(factory.generated.get() > 0 && factory.generated.get() < 100000);
+
+        Range.Cursor<Integer> slice = range.slice(3, 4, 0);
+        for(int i = 0; i < 100; i++){
+            int value = slice.getRandomElement();
+            assertTrue(value >= 75000 && value < 100000);
+        }
+        // shuffling needs all values
+        range.shuffle(1);
+        assertEquals(100000, factory.generated.get());
+    }
+
+    // the fraction of samples that hit the given number of lowest indexes
+    private double fractionBelow(KeyDistribution distribution, long bound){
+        SplitMix64 random = new SplitMix64(42);
+        int hits = 0, samples = 100000;
+        for(int i = 0; i < samples; i++){
+            long index = distribution.next(random);
+            assertTrue(index >= 0 && index < distribution.size());
+            if(index < bound)
+                hits++;
+        }
+        return (double) hits / samples;
+    }
+
+    @Test
+    public void testKeyDistributions(){
+        double uniform = fractionBelow(KeyDistribution.uniform(1000), 100);
+        assertTrue(uniform > 0.08 && uniform < 0.12);
+        // zipfian(0.99): the 10% most popular keys receive the majority of the accesses
+        assertTrue(fractionBelow(KeyDistribution.zipfian(1000, 0.99), 100) > 0.6);
+        assertTrue(fractionBelow(KeyDistribution.latest(1000, 0.99), 900) < 0.4);
+        double scrambled = fractionBelow(KeyDistribution.scrambledZipfian(1000, 0.99), 100);
+        assertTrue(scrambled < 0.6);
+        double hotspot = fractionBelow(KeyDistribution.hotspot(1000, 0.2, 0.8), 200);
+        assertTrue(hotspot > 0.78 && hotspot < 0.82);
+        double exponential = fractionBelow(KeyDistribution.exponential(1000, 95, 0.1), 100);
+        assertTrue(exponential > 0.93);
+
+        Range.Cursor<Integer> cursor = numbers(1000).slice(1, 2, 0);
+        KeyDistribution skewed = KeyDistribution.zipfian(cursor.size(), 0.99);
+        for(int i = 0; i < 100; i++){
+            int value = cursor.getElement(skewed);
+            assertTrue(value >= 500 && value < 1000);
+        }
+    }
+}
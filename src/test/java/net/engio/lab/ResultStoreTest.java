@@ -0,0 +1,365 @@
+package net.engio.lab;
+
+import net.engio.pips.data.DataCollector;
+import net.engio.pips.data.DataPoint;
+import net.engio.pips.lab.Benchmark;
+import net.engio.pips.lab.ExecutionContext;
+import net.engio.pips.lab.LabException;
+import net.engio.pips.lab.Laboratory;
+import net.engio.pips.lab.metrics.HistogramSeries;
+import net.engio.pips.lab.metrics.LatencyHistogram;
+import net.engio.pips.lab.store.*;
+import net.engio.pips.lab.workload.ITask;
+import net.engio.pips.lab.workload.ITaskFactory;
+import net.engio.pips.lab.workload.Warmup;
+import net.engio.pips.lab.workload.Workload;
+import net.engio.pips.reports.BinaryFileExporter;
+import net.engio.pips.reports.RegressionCheck;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * @author bennidi
+ *         Date: 10/17/26
+ */
+public class ResultStoreTest extends UnitTest{
+
+    private File getTempDirectory(){
+        return new File(System.getProperty("java.io.tmpdir"), "lab-tests" + File.separator + System.nanoTime());
+    }
+
+    private void assertSequence(ISeries series, final long expectedSize){
+        final AtomicLong next = new AtomicLong(0);
+        series.feed(new ISeriesConsumer() {
+            @Override
+            public void consume(long timestamp, double value) {
+                long expected = next.getAndIncrement();
+                assertEquals(expected, timestamp);
+                assertEquals((double)expected * 2, value);
+            }
+        });
+        assertEquals(expectedSize, next.get());
+        assertEquals(expectedSize, series.size());
+    }
+
+    @Test
+    public void testWriteAndReopen(){
+        File directory = getTempDirectory();
+        ResultStore store = new ResultStore(directory);
+        int size = ResultStore.BlockSize * 3 + 17;
+        SpillingCollector first = store.createCollector("series:first");
+        SpillingCollector second = store.createCollector("series:second");
+        SpillingCollector third = store.createCollector("series:second");
+        for(int i = 0; i < size; i++){
+            first.add(i, i * 2);
+            second.add(i, i * 2);
+        }
+        third.add(0, 0);
+        store.close();
+
+        for(ResultStore current : new ResultStore[]{store, ResultStore.open(directory)}){
+            assertEquals(2, current.getSeriesIds().size());
+            assertSequence(current.getSeries("series:first").get(0), size);
+            // collectors with the same id are stored as distinct series
+            List<ISeries> seconds = current.getSeries("series:second");
+            assertEquals(2, seconds.size());
+            assertSequence(seconds.get(0), size);
+            assertSequence(seconds.get(1), 1);
+            assertEquals(3, current.getMatching("series").size());
+            assertEquals(0, current.getSeries("unknown").size());
+        }
+    }
+
+    // ids longer than the space reserved for the block header must not overflow the block buffer
+    private static final String LongId = "a rather long series id:with a prefix:and some more text:\u00e4\u00f6\u00fc";
+
+    @Test
+    public void testLongIdRoundTrip(){
+        File directory = getTempDirectory();
+        ResultStore store = new ResultStore(directory);
+        int size = ResultStore.BlockSize * 2 + 3;
+        SpillingCollector collector = store.createCollector(LongId);
+        for(int i = 0; i < size; i++)
+            collector.add(i, i * 2);
+        store.close();
+
+        List<ISeries> series = ResultStore.open(directory).getSeries(LongId);
+        assertEquals(1, series.size());
+        assertSequence(series.get(0), size);
+    }
+
+    @Test
+    public void testUnknownVersionIsRejected() throws Exception{
+        File directory = getTempDirectory();
+        ResultStore store = new ResultStore(directory);
+        store.createCollector("series").add(0, 0);
+        store.close();
+
+        RandomAccessFile file = new RandomAccessFile(new File(directory, ResultStore.FileName), "rw");
+        try {
+            file.seek(4);
+            file.writeInt(99);
+        } finally {
+            file.close();
+        }
+        try {
+            ResultStore.open(directory);
+            fail();
+        } catch (LabException e) {
+            assertEquals(LabException.ErrorCode.ResultStoreIO, e.getCode());
+        }
+    }
+
+    @Test
+    public void testTruncatedBlockIsIgnored() throws Exception{
+        File directory = getTempDirectory();
+        ResultStore store = new ResultStore(directory);
+        SpillingCollector complete = store.createCollector("series:complete");
+        for(int i = 0; i < 10; i++)
+            complete.add(i, i * 2);
+        complete.flush();
+        SpillingCollector truncated = store.createCollector("series:truncated");
+        for(int i = 0; i < 10; i++)
+            truncated.add(i, i * 2);
+        store.close();
+
+        File file = new File(directory, ResultStore.FileName);
+        // cut into the datapoints of the last block, then into its id
+        for(long cut : new long[]{8, 10 * 16 + 12}){
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(raf.length() - cut);
+            } finally {
+                raf.close();
+            }
+            ResultStore reopened = ResultStore.open(directory);
+            assertEquals(1, reopened.getSeries("series:complete").size());
+            assertSequence(reopened.getSeries("series:complete").get(0), 10);
+            assertEquals(0, reopened.getSeries("series:truncated").size());
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void testBinaryFileExport() throws Exception{
+        Benchmark benchmark = new Benchmark("export").setBasePath(getTempDirectory().getAbsolutePath());
+        int size = ResultStore.BlockSize + 100;
+        DataCollector<Long> collector = new DataCollector<Long>(LongId);
+        for(long i = 0; i < size; i++)
+            collector.receive(new DataPoint<Long>(i, i * 2));
+        benchmark.addCollector(collector);
+
+        new BinaryFileExporter().generate(benchmark);
+
+        ResultStore exported = ResultStore.open(new File(benchmark.getReportBaseDir()), BinaryFileExporter.FileName);
+        assertEquals(1, exported.getSeriesIds().size());
+        assertSequence(exported.getSeries(LongId).get(0), size);
+    }
+
+    @Test
+    public void testStreamingBenchmark() throws Exception{
+        Workload workload = new Workload("Streaming")
+                .setParallelTasks(4)
+                .setITaskFactory(new ITaskFactory() {
+                    @Override
+                    public ITask create(ExecutionContext context) {
+                        final SpillingCollector<Long> collector = context.createSpillingCollector("values");
+                        return new ITask() {
+                            private long round = 0;
+                            @Override
+                            public void run(ExecutionContext context) throws Exception {
+                                collector.add(round, round * 2);
+                                round++;
+                            }
+                        };
+                    }
+                })
+                .duration().repetitions(5000)
+                .starts().immediately();
+        Benchmark benchmark = new Benchmark("streaming")
+                .setBasePath(getTempDirectory().getAbsolutePath())
+                .setStreamResults(true)
+                .addWorkload(workload);
+
+        new Laboratory().run(benchmark);
+
+        ResultStore stored = ResultStore.open(new File(benchmark.getReportBaseDir()));
+        List<ISeries> series = stored.getSeries("values");
+        assertEquals(4, series.size());
+        for(ISeries single : series)
+            assertSequence(single, 5000);
+        // the metrics of the run are stored with its results
+        assertEquals(1, stored.getSeries("Streaming:throughput").size());
+        assertEquals(1, stored.getSeries("Streaming:failures").size());
+    }
+
+    @Test
+    public void testStreamingWarmupIsStoredSeparately() throws Exception{
+        Workload workload = new Workload("Streaming warmup")
+                .setParallelTasks(2)
+                .setITaskFactory(new ITaskFactory() {
+                    @Override
+                    public ITask create(ExecutionContext context) {
+                        final SpillingCollector<Long> collector = context.createSpillingCollector("values");
+                        return new ITask() {
+                            private long round = 0;
+                            @Override
+                            public void run(ExecutionContext context) throws Exception {
+                                collector.add(round, round * 2);
+                                round++;
+                            }
+                        };
+                    }
+                })
+                .warmup().repetitions(100)
+                .duration().repetitions(300)
+                .starts().immediately();
+        Benchmark benchmark = new Benchmark("streaming")
+                .setBasePath(getTempDirectory().getAbsolutePath())
+                .setStreamResults(true)
+                .addWorkload(workload);
+
+        new Laboratory().run(benchmark);
+
+        ResultStore stored = ResultStore.open(new File(benchmark.getReportBaseDir()));
+        List<ISeries> warmup = stored.getSeries(Warmup.getWarmupId("values"));
+        assertEquals(2, warmup.size());
+        for(ISeries single : warmup)
+            assertSequence(single, 100);
+        List<ISeries> measured = stored.getSeries("values");
+        assertEquals(2, measured.size());
+        for(ISeries single : measured){
+            assertEquals(300L, single.size());
+            // the measurement starts after the warmup rounds
+            single.feed(new ISeriesConsumer() {
+                private long next = 100;
+                @Override
+                public void consume(long timestamp, double value) {
+                    assertEquals(next++, timestamp);
+                }
+            });
+        }
+        stored.close();
+    }
+
+    private void fill(ResultStore store, String id, int size, int offset){
+        SpillingCollector collector = store.createCollector(id);
+        for(int i = 0; i < size; i++)
+            collector.add(i, offset + getRandom().nextInt(100));
+    }
+
+    @Test
+    public void testRegressionCheck() throws Exception{
+        File basePath = getTempDirectory();
+        ResultStore previous = new ResultStore(new File(basePath, "regression" + File.separator + "1000"));
+        fill(previous, "stable", 5000, 1000);
+        fill(previous, "degrading", 5000, 1000);
+        previous.close();
+
+        Benchmark benchmark = new Benchmark("regression")
+                .setBasePath(basePath.getAbsolutePath())
+                .setStreamResults(true);
+        fill(benchmark.getResultStore(), "stable", 5000, 1000);
+        fill(benchmark.getResultStore(), "degrading", 5000, 1000);
+        benchmark.getResultStore().close();
+        // a stable run passes the check
+        new RegressionCheck().generate(benchmark);
+
+        Thread.sleep(5); // the run directory is named after the current time
+        benchmark = new Benchmark("regression")
+                .setBasePath(basePath.getAbsolutePath())
+                .setStreamResults(true);
+        fill(benchmark.getResultStore(), "stable", 5000, 1000);
+        fill(benchmark.getResultStore(), "degrading", 5000, 1500);
+        benchmark.getResultStore().close();
+        try {
+            new RegressionCheck().generate(benchmark);
+            fail();
+        } catch (LabException e) {
+            assertEquals(LabException.ErrorCode.PerformanceRegression, e.getCode());
+            assertTrue(e.getMessage().contains("degrading"));
+            assertFalse(e.getMessage().contains("stable"));
+        }
+    }
+
+    @Test
+    public void testRegressionCheckLoadsNewestRuns() throws Exception{
+        File basePath = getTempDirectory();
+        // the oldest run is not a valid store and must not be loaded when only the newest runs are compared
+        File oldest = new File(basePath, "newest" + File.separator + "1000");
+        oldest.mkdirs();
+        RandomAccessFile corrupt = new RandomAccessFile(new File(oldest, ResultStore.FileName), "rw");
+        try {
+            corrupt.writeLong(0);
+        } finally {
+            corrupt.close();
+        }
+        for(String run : new String[]{"2000", "3000"}){
+            ResultStore previous = new ResultStore(new File(basePath, "newest" + File.separator + run));
+            fill(previous, "stable", 5000, 1000);
+            previous.close();
+        }
+
+        Benchmark benchmark = new Benchmark("newest")
+                .setBasePath(basePath.getAbsolutePath())
+                .setStreamResults(true);
+        fill(benchmark.getResultStore(), "stable", 5000, 1000);
+        benchmark.getResultStore().close();
+        new RegressionCheck().setBaselineRuns(2).generate(benchmark);
+        try {
+            new RegressionCheck().setBaselineRuns(3).generate(benchmark);
+            fail();
+        } catch (LabException e) {
+            assertEquals(LabException.ErrorCode.ResultStoreIO, e.getCode());
+        }
+    }
+
+    private void fillHistogram(ResultStore store, String timerId, int offset){
+        LatencyHistogram latencies = new LatencyHistogram();
+        for(int i = 0; i < 5000; i++)
+            latencies.record(offset + getRandom().nextInt(100));
+        store.store(new HistogramSeries(timerId, latencies));
+    }
+
+    private void assertRegressions(Benchmark benchmark, String... expected) throws Exception{
+        try {
+            new RegressionCheck().generate(benchmark);
+            assertEquals(0, expected.length);
+        } catch (LabException e) {
+            assertEquals(LabException.ErrorCode.PerformanceRegression, e.getCode());
+            for(String id : new String[]{"load:throughput", "load:failures", "timer:histogram"})
+                assertEquals(Arrays.asList(expected).contains(id), e.getMessage().contains(id + " "));
+        }
+    }
+
+    private Benchmark run(File basePath, int throughput, int failures, int latency) throws Exception{
+        Thread.sleep(5); // the run directory is named after the current time
+        Benchmark benchmark = new Benchmark("directions")
+                .setBasePath(basePath.getAbsolutePath())
+                .setStreamResults(true);
+        fill(benchmark.getResultStore(), "load:throughput", 5000, throughput);
+        fill(benchmark.getResultStore(), "load:failures", 5000, failures);
+        fillHistogram(benchmark.getResultStore(), "timer", latency);
+        benchmark.getResultStore().close();
+        return benchmark;
+    }
+
+    @Test
+    public void testRegressionDirections() throws Exception{
+        File basePath = getTempDirectory();
+        run(basePath, 1000, 1000, 1000);
+        // more throughput, less failures and lower latencies are improvements
+        assertRegressions(run(basePath, 1500, 500, 500));
+        // compared with the previous run
+        assertRegressions(run(basePath, 1000, 500, 500), "load:throughput");
+        assertRegressions(run(basePath, 1000, 1000, 500), "load:failures");
+        assertRegressions(run(basePath, 1000, 1000, 1000), "timer:histogram");
+    }
+
+}